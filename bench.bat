@@ -0,0 +1,27 @@
+@echo off
+
+:: Runs the JMH benchmarks of src\bench against the classes compiled by run.bat
+:: lib\bench must hold jmh-core, jmh-generator-annprocess, jopt-simple and commons-math3
+:: arguments go to JMH, e.g. bench.bat RoutingBenchmark -f 1 -wi 2
+
+:: Load the configuration file
+for /F "delims=" %%a in (_config.conf) do set "%%a"
+
+set "src=%root%\src\bench"
+set "lib=%root%\lib"
+set "bin=%root%\bin"
+set "benchbin=%root%\bench-bin"
+
+if not exist "%bin%\controller\FrontController.class" (
+    echo Build the framework with run.bat first.
+    exit /b 1
+)
+
+if not exist "%benchbin%" mkdir "%benchbin%"
+
+:: the JMH processor generates the benchmark harness and META-INF\BenchmarkList into bench-bin
+javac -d "%benchbin%" -cp "%bin%;%lib%\*;%lib%\bench\*" -processor org.openjdk.jmh.generators.BenchmarkProcessor "%src%\benchmark\*.java"
+if errorlevel 1 exit /b 1
+
+:: the gc profiler adds the allocation per operation (gc.alloc.rate.norm) next to the throughput
+java -cp "%benchbin%;%bin%;%lib%\*;%lib%\bench\*" org.openjdk.jmh.Main -prof gc %*
@@ -0,0 +1,21 @@
+#!/bin/sh
+# End-to-end load test: FrontController and the sample controllers of src/bench/loadtest are
+# deployed in an embedded Tomcat on localhost and driven over HTTP, everything runs offline
+# lib must hold the framework dependencies (servlet API, gson, orm) and lib/bench the embedded
+# Tomcat 9 jars (tomcat-embed-core, tomcat-annotations-api), which still use javax.servlet
+# options go to loadtest.LoadHarness, e.g.
+#   ./load.sh --mode=open --rate=2000 --duration=60 --param.dispatch_mode=virtual
+
+set -e
+
+root=$(cd "$(dirname "$0")" && pwd)
+out="$root/load-bin"
+classpath="$root/lib/*:$root/lib/bench/*"
+
+rm -rf "$out"
+mkdir -p "$out"
+
+find "$root/src/java" "$root/src/bench/loadtest" -name '*.java' > "$out/sources.txt"
+javac -encoding UTF-8 -nowarn -d "$out" -cp "$classpath" @"$out/sources.txt"
+
+exec java -cp "$out:$classpath" loadtest.LoadHarness "$@"
@@ -0,0 +1,113 @@
+package benchmark;
+
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletRequestWrapper;
+import javax.servlet.http.HttpSession;
+
+// in-memory request: method, URI, parameters, headers and attributes are set by the benchmark,
+// the session is created once and kept
+public class BenchRequest extends HttpServletRequestWrapper {
+
+    private final String method;
+    private final String uri;
+    private final Map<String, String[]> parameters = new LinkedHashMap<>();
+    private final Map<String, String> headers = new HashMap<>();
+    private final Map<String, Object> attributes = new HashMap<>();
+    private final BenchSession session = new BenchSession();
+
+    public BenchRequest(String method, String uri) {
+        super(Unsupported.of(HttpServletRequest.class));
+        this.method = method;
+        this.uri = uri;
+    }
+
+    public BenchRequest param(String name, String... values) {
+        parameters.put(name, values);
+        return this;
+    }
+
+    public BenchRequest header(String name, String value) {
+        headers.put(name, value);
+        return this;
+    }
+
+    // attributes written by the framework, such as view data, are dropped between invocations
+    public void clearAttributes()
+    { attributes.clear(); }
+
+    @Override
+    public String getMethod()
+    { return method; }
+
+    @Override
+    public String getRequestURI()
+    { return uri; }
+
+    @Override
+    public String getParameter(String name) {
+        String[] values = parameters.get(name);
+        return values != null && values.length > 0 ? values[0] : null;
+    }
+
+    @Override
+    public String[] getParameterValues(String name)
+    { return parameters.get(name); }
+
+    @Override
+    public Map<String, String[]> getParameterMap()
+    { return Collections.unmodifiableMap(parameters); }
+
+    @Override
+    public Enumeration<String> getParameterNames()
+    { return Collections.enumeration(parameters.keySet()); }
+
+    @Override
+    public String getHeader(String name)
+    { return headers.get(name); }
+
+    @Override
+    public long getDateHeader(String name)
+    { return -1; }
+
+    @Override
+    public String getContentType()
+    { return null; }
+
+    @Override
+    public String getCharacterEncoding()
+    { return "UTF-8"; }
+
+    @Override
+    public long getContentLengthLong()
+    { return -1; }
+
+    @Override
+    public boolean isAsyncSupported()
+    { return false; }
+
+    @Override
+    public HttpSession getSession()
+    { return session; }
+
+    @Override
+    public HttpSession getSession(boolean create)
+    { return session; }
+
+    @Override
+    public Object getAttribute(String name)
+    { return attributes.get(name); }
+
+    @Override
+    public void setAttribute(String name, Object value)
+    { attributes.put(name, value); }
+
+    @Override
+    public void removeAttribute(String name)
+    { attributes.remove(name); }
+}
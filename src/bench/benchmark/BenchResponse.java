@@ -0,0 +1,162 @@
+package benchmark;
+
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+
+// in-memory response: the body is counted and discarded so serialization is measured without
+// growing a buffer, reset() prepares it for the next invocation
+public class BenchResponse extends HttpServletResponseWrapper {
+
+    private final Map<String, String> headers = new HashMap<>();
+    private final CountingWriter body = new CountingWriter();
+    private final PrintWriter writer = new PrintWriter(body);
+    private final CountingStream stream = new CountingStream();
+    private int status = SC_OK;
+    private String contentType;
+    private String characterEncoding = "ISO-8859-1";
+
+    public BenchResponse()
+    { super(Unsupported.of(HttpServletResponse.class)); }
+
+    @Override
+    public void reset() {
+        headers.clear();
+        writer.flush();
+        body.count = 0;
+        stream.count = 0;
+        status = SC_OK;
+        contentType = null;
+        characterEncoding = "ISO-8859-1";
+    }
+
+    // chars written through the writer plus bytes written through the stream
+    public long getBodySize() {
+        writer.flush();
+        return body.count + stream.count;
+    }
+
+    @Override
+    public int getStatus()
+    { return status; }
+
+    @Override
+    public void setStatus(int status)
+    { this.status = status; }
+
+    @Override
+    public void setContentType(String contentType)
+    { this.contentType = contentType; }
+
+    @Override
+    public String getContentType()
+    { return contentType; }
+
+    @Override
+    public void setCharacterEncoding(String characterEncoding)
+    { this.characterEncoding = characterEncoding; }
+
+    @Override
+    public String getCharacterEncoding()
+    { return characterEncoding; }
+
+    @Override
+    public void setHeader(String name, String value)
+    { headers.put(name, value); }
+
+    @Override
+    public void addHeader(String name, String value)
+    { headers.merge(name, value, (current, added) -> current + ", " + added); }
+
+    @Override
+    public void setDateHeader(String name, long date)
+    { headers.put(name, Long.toString(date)); }
+
+    @Override
+    public String getHeader(String name)
+    { return headers.get(name); }
+
+    @Override
+    public boolean containsHeader(String name)
+    { return headers.containsKey(name); }
+
+    @Override
+    public void setContentLength(int length)
+    { }
+
+    @Override
+    public void setContentLengthLong(long length)
+    { }
+
+    @Override
+    public PrintWriter getWriter()
+    { return writer; }
+
+    @Override
+    public ServletOutputStream getOutputStream()
+    { return stream; }
+
+    @Override
+    public boolean isCommitted()
+    { return false; }
+
+    @Override
+    public void resetBuffer()
+    { }
+
+    @Override
+    public void flushBuffer()
+    { writer.flush(); }
+
+    private static final class CountingWriter extends Writer {
+
+        long count;
+
+        @Override
+        public void write(char[] chars, int offset, int length)
+        { count += length; }
+
+        @Override
+        public void write(String string, int offset, int length)
+        { count += length; }
+
+        @Override
+        public void write(int c)
+        { count++; }
+
+        @Override
+        public void flush()
+        { }
+
+        @Override
+        public void close()
+        { }
+    }
+
+    private static final class CountingStream extends ServletOutputStream {
+
+        long count;
+
+        @Override
+        public void write(int b)
+        { count++; }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length)
+        { count += length; }
+
+        @Override
+        public boolean isReady()
+        { return true; }
+
+        @Override
+        public void setWriteListener(WriteListener listener)
+        { }
+    }
+}
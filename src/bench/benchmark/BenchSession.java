@@ -0,0 +1,90 @@
+package benchmark;
+
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.servlet.ServletContext;
+import javax.servlet.http.HttpSession;
+
+// in-memory session, attributes live in a plain map
+@SuppressWarnings("deprecation")
+public class BenchSession implements HttpSession {
+
+    private final Map<String, Object> attributes = new HashMap<>();
+    private final long creationTime = System.currentTimeMillis();
+
+    @Override
+    public Object getAttribute(String name)
+    { return attributes.get(name); }
+
+    @Override
+    public void setAttribute(String name, Object value) {
+        if (value == null)
+        { attributes.remove(name); }
+
+        else
+        { attributes.put(name, value); }
+    }
+
+    @Override
+    public void removeAttribute(String name)
+    { attributes.remove(name); }
+
+    @Override
+    public Enumeration<String> getAttributeNames()
+    { return Collections.enumeration(attributes.keySet()); }
+
+    @Override
+    public void invalidate()
+    { attributes.clear(); }
+
+    @Override
+    public long getCreationTime()
+    { return creationTime; }
+
+    @Override
+    public String getId()
+    { return "bench"; }
+
+    @Override
+    public long getLastAccessedTime()
+    { return creationTime; }
+
+    @Override
+    public ServletContext getServletContext()
+    { return null; }
+
+    @Override
+    public void setMaxInactiveInterval(int interval)
+    { }
+
+    @Override
+    public int getMaxInactiveInterval()
+    { return -1; }
+
+    @Override
+    public boolean isNew()
+    { return false; }
+
+    @Override
+    public javax.servlet.http.HttpSessionContext getSessionContext()
+    { return null; }
+
+    @Override
+    public Object getValue(String name)
+    { return getAttribute(name); }
+
+    @Override
+    public String[] getValueNames()
+    { return attributes.keySet().toArray(new String[0]); }
+
+    @Override
+    public void putValue(String name, Object value)
+    { setAttribute(name, value); }
+
+    @Override
+    public void removeValue(String name)
+    { removeAttribute(name); }
+}
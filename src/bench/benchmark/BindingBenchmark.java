@@ -0,0 +1,72 @@
+package benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import binding.BindingContext;
+import binding.ModelBinder;
+import routing.PathVariables;
+import session.Session;
+
+// model attribute population through the ModelBinder plans that replaced setAllModelAttribute:
+// a flat model and one with two levels of nested objects posted with dotted names
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BindingBenchmark {
+
+    private ModelBinder orderBinder;
+    private ModelBinder addressBinder;
+    private BenchRequest orderRequest;
+    private BenchRequest addressRequest;
+    private Session orderSession;
+    private Session addressSession;
+
+    @Setup
+    public void setUp()
+        throws Exception
+    {
+        orderBinder = ModelBinder.forClass(Fixtures.Order.class);
+        addressBinder = ModelBinder.forClass(Fixtures.Address.class);
+
+        orderRequest = Fixtures.orderForm("POST", "/shop/orders/new");
+        addressRequest = new BenchRequest("POST", "/shop/addresses")
+            .param("street", "Lot II A 12")
+            .param("city", "Antananarivo")
+            .param("zip", "10100");
+
+        orderSession = new Session(orderRequest);
+        addressSession = new Session(addressRequest);
+    }
+
+    @Benchmark
+    public Object flatModel()
+        throws Exception
+    {
+        Fixtures.Address address = new Fixtures.Address();
+        addressBinder.bind(address, new BindingContext(addressRequest, addressSession, new PathVariables()));
+        return address;
+    }
+
+    @Benchmark
+    public Object nestedModel()
+        throws Exception
+    {
+        Fixtures.Order order = new Fixtures.Order();
+        orderBinder.bind(order, new BindingContext(orderRequest, orderSession, new PathVariables()));
+        return order;
+    }
+}
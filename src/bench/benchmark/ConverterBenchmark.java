@@ -0,0 +1,76 @@
+package benchmark;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import convert.ConverterRegistry;
+import convert.TypeConverter;
+
+// request value conversion for every built-in type, the converters that replaced convertParameterType
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConverterBenchmark {
+
+    @Param({ "String", "int", "Integer", "long", "double", "float", "boolean", "char", "BigDecimal", "BigInteger", "LocalDate", "LocalTime", "LocalDateTime", "sql.Date", "Timestamp", "enum", "blank" })
+    public String type;
+
+    private TypeConverter converter;
+    private String value;
+
+    @Setup
+    public void setUp() {
+        Class<?> target;
+        switch (type) {
+            case "String":        target = String.class;          value = "Antananarivo"; break;
+            case "int":           target = int.class;             value = "1024"; break;
+            case "Integer":       target = Integer.class;         value = "1024"; break;
+            case "long":          target = long.class;            value = "9007199254740993"; break;
+            case "double":        target = double.class;          value = "1234.5678"; break;
+            case "float":         target = float.class;           value = "12.5"; break;
+            case "boolean":       target = boolean.class;         value = "on"; break;
+            case "char":          target = char.class;            value = "A"; break;
+            case "BigDecimal":    target = BigDecimal.class;      value = "129.50"; break;
+            case "BigInteger":    target = BigInteger.class;      value = "12345678901234567890"; break;
+            case "LocalDate":     target = LocalDate.class;       value = "2024-05-17"; break;
+            case "LocalTime":     target = LocalTime.class;       value = "14:30"; break;
+            case "LocalDateTime": target = LocalDateTime.class;   value = "2024-05-17T14:30"; break;
+            case "sql.Date":      target = java.sql.Date.class;   value = "2024-05-17"; break;
+            case "Timestamp":     target = Timestamp.class;       value = "2024-05-17T14:30"; break;
+            case "enum":          target = Fixtures.Status.class; value = "SHIPPED"; break;
+
+            // empty form fields take the default value without parsing
+            case "blank":         target = int.class;             value = "  "; break;
+            default:              throw new IllegalArgumentException(type);
+        }
+
+        converter = ConverterRegistry.getInstance().resolve(target);
+        if (converter == null)
+        { throw new IllegalStateException("No converter for " + target.getName()); }
+    }
+
+    @Benchmark
+    public Object convert()
+        throws Exception
+    { return converter.convert(value); }
+}
@@ -0,0 +1,81 @@
+package benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import mapping.HandlerMethod;
+import mapping.Mapping;
+import routing.PathVariables;
+import routing.Router;
+import utils.Utils;
+
+// Mapping.reflectMethod end to end: session, auth check, controller, binders, validation and
+// the handler call, after the route lookup FrontController does first
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DispatchBenchmark {
+
+    private Router router;
+    private BenchRequest showRequest;
+    private BenchRequest createRequest;
+    private BenchResponse response;
+
+    @Setup
+    public void setUp()
+        throws Exception
+    {
+        router = RoutingBenchmark.buildRouter();
+        showRequest = new BenchRequest("GET", "/shop/orders/42").param("expand", "true");
+        createRequest = Fixtures.orderForm("POST", "/shop/orders/new");
+        response = new BenchResponse();
+    }
+
+    @Benchmark
+    public Object restGet()
+        throws Exception
+    {
+        PathVariables variables = new PathVariables();
+        HandlerMethod handler = router.match(showRequest.getRequestURI(), RoutingBenchmark.FROM, variables).getHandler("GET");
+        return Mapping.reflectMethod(handler, showRequest, variables);
+    }
+
+    // the same request rendered to JSON, as the client receives it
+    @Benchmark
+    public long restGetRendered()
+        throws Exception
+    {
+        PathVariables variables = new PathVariables();
+        HandlerMethod handler = router.match(showRequest.getRequestURI(), RoutingBenchmark.FROM, variables).getHandler("GET");
+        Object result = Mapping.reflectMethod(handler, showRequest, variables);
+
+        response.reset();
+        Utils.handleRestAPI(result, handler.getJsonType(), showRequest, response);
+        return response.getBodySize();
+    }
+
+    // form post binding a nested model validated with @Valid
+    @Benchmark
+    public Object formPost()
+        throws Exception
+    {
+        createRequest.clearAttributes();
+
+        PathVariables variables = new PathVariables();
+        HandlerMethod handler = router.match(createRequest.getRequestURI(), RoutingBenchmark.FROM, variables).getHandler("POST");
+        return Mapping.reflectMethod(handler, createRequest, variables);
+    }
+}
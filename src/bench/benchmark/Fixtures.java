@@ -0,0 +1,201 @@
+package benchmark;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import annotation.AnnotationController;
+import annotation.AnnotationGetMapping;
+import annotation.AnnotationModelAttribute;
+import annotation.AnnotationPathVariable;
+import annotation.AnnotationPostMapping;
+import annotation.AnnotationRequestParam;
+import annotation.AnnotationRestAPI;
+import annotation.AnnotationURL;
+import modelview.ModelView;
+import validation.NotNull;
+import validation.Number;
+import validation.Size;
+import validation.Valid;
+
+// controllers and models shared by the benchmarks, shaped like a small order-entry application
+public final class Fixtures {
+
+    private Fixtures()
+    { }
+
+    public enum Status { PENDING, PAID, SHIPPED }
+
+    @Valid
+    public static class Address {
+        private String street;
+        private String city;
+
+        @Size(min = 5, max = 5, message = "Zip codes have 5 digits")
+        private String zip;
+
+        public String getCity()
+        { return city; }
+    }
+
+    @Valid
+    public static class Customer {
+        @NotNull
+        @Size(min = 2, max = 40)
+        private String name;
+
+        private String email;
+        private Address address;
+
+        public Address getAddress()
+        { return address; }
+    }
+
+    @Valid
+    public static class Order {
+        @NotNull
+        private Integer id;
+
+        @Number(canBeNegative = false, message = "The amount cannot be negative")
+        private BigDecimal amount;
+
+        @Size(max = 200)
+        private String note;
+
+        private LocalDate date;
+        private Status status;
+        private boolean gift;
+        private Customer customer;
+
+        public Customer getCustomer()
+        { return customer; }
+    }
+
+    // JSON payload of the REST routes
+    public static class OrderLine {
+        public int id;
+        public String product;
+        public int quantity;
+        public BigDecimal price;
+        public Status status;
+
+        public OrderLine(int id, String product, int quantity, BigDecimal price, Status status) {
+            this.id = id;
+            this.product = product;
+            this.quantity = quantity;
+            this.price = price;
+            this.status = status;
+        }
+    }
+
+    public static List<OrderLine> lines(int count) {
+        List<OrderLine> lines = new ArrayList<>(count);
+        for (int i = 0; i < count; i++)
+        { lines.add(new OrderLine(i, "Product number " + i, i % 7 + 1, new BigDecimal("19.90").add(BigDecimal.valueOf(i)), Status.values()[i % 3])); }
+
+        return lines;
+    }
+
+    // form-encoded order as a browser posts it, nested fields use dotted names
+    public static BenchRequest orderForm(String method, String uri) {
+        return new BenchRequest(method, uri)
+            .param("id", "42")
+            .param("amount", "129.50")
+            .param("note", "Leave at the door")
+            .param("date", "2024-05-17")
+            .param("status", "PAID")
+            .param("gift", "on")
+            .param("customer.name", "Rakoto Jean")
+            .param("customer.email", "rakoto@example.mg")
+            .param("customer.address.street", "Lot II A 12")
+            .param("customer.address.city", "Antananarivo")
+            .param("customer.address.zip", "10100");
+    }
+
+    @AnnotationController(name = "orders")
+    public static class OrderController {
+
+        private static final List<OrderLine> PAGE = lines(20);
+
+        @AnnotationURL("/orders")
+        @AnnotationGetMapping
+        @AnnotationRestAPI
+        public List<OrderLine> list(@AnnotationRequestParam(name = "page") int page)
+        { return PAGE; }
+
+        @AnnotationURL("/orders/{id}")
+        @AnnotationGetMapping
+        @AnnotationRestAPI
+        public OrderLine show(@AnnotationPathVariable("id") int id, @AnnotationRequestParam(name = "expand") boolean expand)
+        { return PAGE.get(id % PAGE.size()); }
+
+        @AnnotationURL("/orders/new")
+        @AnnotationGetMapping
+        public ModelView form()
+        { return new ModelView("orders/form.jsp"); }
+
+        @AnnotationURL("/orders/new")
+        @AnnotationPostMapping
+        public ModelView create(@AnnotationModelAttribute("order") @Valid Order order) {
+            ModelView view = new ModelView("orders/show.jsp");
+            view.add("order", order);
+            return view;
+        }
+
+        @AnnotationURL("/orders/{id}/lines/{line}")
+        @AnnotationGetMapping
+        @AnnotationRestAPI
+        public OrderLine line(@AnnotationPathVariable("id") int id, @AnnotationPathVariable("line") int line)
+        { return PAGE.get(line % PAGE.size()); }
+    }
+
+    // routes that only widen the routing table
+    @AnnotationController(name = "site")
+    public static class SiteController {
+
+        @AnnotationURL("/")
+        public String home()
+        { return "home"; }
+
+        @AnnotationURL("/about")
+        public String about()
+        { return "about"; }
+
+        @AnnotationURL("/login")
+        public String login()
+        { return "login"; }
+
+        @AnnotationURL("/logout")
+        public String logout()
+        { return "logout"; }
+
+        @AnnotationURL("/customers")
+        public String customers()
+        { return "customers"; }
+
+        @AnnotationURL("/customers/{id}")
+        public String customer(@AnnotationPathVariable("id") int id)
+        { return "customer"; }
+
+        @AnnotationURL("/customers/{id}/orders")
+        public String customerOrders(@AnnotationPathVariable("id") int id)
+        { return "customer orders"; }
+
+        @AnnotationURL("/products")
+        public String products()
+        { return "products"; }
+
+        @AnnotationURL("/products/{sku}")
+        public String product(@AnnotationPathVariable("sku") String sku)
+        { return "product"; }
+
+        @AnnotationURL("/reports/daily")
+        public String daily()
+        { return "daily"; }
+
+        @AnnotationURL("/reports/monthly/{month}")
+        public String monthly(@AnnotationPathVariable("month") String month)
+        { return "monthly"; }
+    }
+}
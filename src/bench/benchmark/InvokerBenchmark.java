@@ -0,0 +1,78 @@
+package benchmark;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import invoker.Instantiator;
+import invoker.Invokers;
+import invoker.MethodInvoker;
+
+// the reflective controller invocation path against the compiled invokers
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InvokerBenchmark {
+
+    public static class SampleController {
+
+        public SampleController()
+        { }
+
+        public String show(String name, Integer id)
+        { return name; }
+    }
+
+    private Method method;
+    private MethodInvoker invoker;
+    private Instantiator instantiator;
+    private SampleController target;
+    private Object[] arguments;
+
+    @Setup
+    public void setUp()
+        throws Exception
+    {
+        method = SampleController.class.getDeclaredMethod("show", String.class, Integer.class);
+        method.setAccessible(true);
+
+        invoker = Invokers.forMethod(method);
+        instantiator = Invokers.forClass(SampleController.class);
+        target = new SampleController();
+        arguments = new Object[] { "flight", 42 };
+    }
+
+    @Benchmark
+    public Object methodInvoke()
+        throws Exception
+    { return method.invoke(target, arguments); }
+
+    @Benchmark
+    public Object methodInvoker()
+        throws Exception
+    { return invoker.invoke(target, arguments); }
+
+    // the constructor is looked up on each call, as the reflective path did per request
+    @Benchmark
+    public Object constructorNewInstance()
+        throws Exception
+    { return SampleController.class.getDeclaredConstructor().newInstance(); }
+
+    @Benchmark
+    public Object instantiator()
+        throws Exception
+    { return instantiator.newInstance(); }
+}
@@ -0,0 +1,90 @@
+package benchmark;
+
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import response.JsonSerializer;
+import utils.Utils;
+
+// Utils.handleRestAPI serialization: a POST streams the JSON, a GET also hashes it into an
+// ETag, and a GET carrying the current ETag is answered with 304
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonBenchmark {
+
+    @Param({ "1", "20", "500" })
+    public int lines;
+
+    private Object payload;
+    private Type jsonType;
+    private BenchRequest get;
+    private BenchRequest post;
+    private BenchRequest conditionalGet;
+    private BenchResponse response;
+
+    @Setup
+    public void setUp()
+        throws Exception
+    {
+        List<Fixtures.OrderLine> page = Fixtures.lines(lines);
+        payload = lines == 1 ? page.get(0) : page;
+
+        // adapters are prepared from the declared return types, as at scan time
+        Type declared = lines == 1
+            ? Fixtures.OrderController.class.getMethod("show", int.class, boolean.class).getGenericReturnType()
+            : Fixtures.OrderController.class.getMethod("list", int.class).getGenericReturnType();
+        jsonType = JsonSerializer.prepare(declared);
+
+        get = new BenchRequest("GET", "/shop/orders");
+        post = new BenchRequest("POST", "/shop/orders");
+        response = new BenchResponse();
+
+        Utils.handleRestAPI(payload, jsonType, get, response);
+        String etag = response.getHeader("ETag");
+        conditionalGet = new BenchRequest("GET", "/shop/orders").header("If-None-Match", etag != null ? etag : "\"none\"");
+    }
+
+    @Benchmark
+    public long post()
+        throws Exception
+    {
+        response.reset();
+        Utils.handleRestAPI(payload, jsonType, post, response);
+        return response.getBodySize();
+    }
+
+    @Benchmark
+    public long get()
+        throws Exception
+    {
+        response.reset();
+        Utils.handleRestAPI(payload, jsonType, get, response);
+        return response.getBodySize();
+    }
+
+    @Benchmark
+    public int notModified()
+        throws Exception
+    {
+        response.reset();
+        Utils.handleRestAPI(payload, jsonType, conditionalGet, response);
+        return response.getStatus();
+    }
+}
@@ -0,0 +1,74 @@
+package benchmark;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import mapping.HandlerMethod;
+import mapping.Mapping;
+import routing.PathVariables;
+import routing.Router;
+import scanner.ControllerScanner;
+import utils.Utils;
+
+// URL parsing and route lookup, from the request URI to the handler of the verb
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RoutingBenchmark {
+
+    static final String PROJECT = "shop";
+    static final int FROM = PROJECT.length() + 1;
+
+    private Router router;
+
+    @Setup
+    public void setUp()
+        throws Exception
+    { router = buildRouter(); }
+
+    static Router buildRouter()
+        throws Exception
+    {
+        HashMap<String, Mapping> map = new HashMap<>();
+        new ControllerScanner().map(map, Arrays.asList(Fixtures.OrderController.class, Fixtures.SiteController.class));
+        return Router.build(map);
+    }
+
+    @Benchmark
+    public String parseURL()
+    { return Utils.parseURL(PROJECT, "/shop/orders/42/lines/7"); }
+
+    @Benchmark
+    public Mapping matchStatic()
+    { return router.match("/shop/reports/daily", FROM, new PathVariables()); }
+
+    @Benchmark
+    public String matchVariables() {
+        PathVariables variables = new PathVariables();
+        router.match("/shop/orders/42/lines/7", FROM, variables);
+        return variables.getValue(1);
+    }
+
+    @Benchmark
+    public HandlerMethod handlerLookup()
+    { return router.match("/shop/orders/42", FROM, new PathVariables()).getHandler("GET"); }
+
+    @Benchmark
+    public Mapping miss()
+    { return router.match("/shop/orders/42/invoices", FROM, new PathVariables()); }
+}
@@ -0,0 +1,18 @@
+package benchmark;
+
+import java.lang.reflect.Proxy;
+
+// delegate of the stand-ins: anything they do not implement fails loudly, so a benchmark never
+// measures a silently stubbed call; proxies allocate on every call and are kept off the hot paths
+final class Unsupported {
+
+    private Unsupported()
+    { }
+
+    @SuppressWarnings("unchecked")
+    static <T> T of(Class<T> type) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type }, (proxy, method, args) -> {
+            throw new UnsupportedOperationException(type.getSimpleName() + "." + method.getName() + " is not implemented by the benchmark stand-in");
+        });
+    }
+}
@@ -0,0 +1,72 @@
+package benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import binding.BindingContext;
+import binding.ModelBinder;
+import engine.ValidationEngine;
+import engine.ValidationResult;
+import routing.PathVariables;
+import session.Session;
+
+// ValidationEngine.validate on a model that passes and on one failing three constraints,
+// the failing case also builds the error messages
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ValidationBenchmark {
+
+    private Fixtures.Order valid;
+    private Fixtures.Order invalid;
+
+    @Setup
+    public void setUp()
+        throws Exception
+    {
+        valid = bind(Fixtures.orderForm("POST", "/shop/orders/new"));
+
+        StringBuilder longNote = new StringBuilder();
+        while (longNote.length() <= 200)
+        { longNote.append("too long "); }
+
+        invalid = bind(Fixtures.orderForm("POST", "/shop/orders/new")
+            .param("id", "")
+            .param("amount", "-5")
+            .param("note", longNote.toString()));
+
+        if (!ValidationEngine.validate(valid).isValid() || ValidationEngine.validate(invalid).isValid())
+        { throw new IllegalStateException("The validation fixtures do not validate as expected"); }
+    }
+
+    private static Fixtures.Order bind(BenchRequest request)
+        throws Exception
+    {
+        Fixtures.Order order = new Fixtures.Order();
+        ModelBinder.forClass(Fixtures.Order.class).bind(order, new BindingContext(request, new Session(request), new PathVariables()));
+        return order;
+    }
+
+    @Benchmark
+    public ValidationResult validModel()
+        throws Exception
+    { return ValidationEngine.validate(valid); }
+
+    @Benchmark
+    public ValidationResult invalidModel()
+        throws Exception
+    { return ValidationEngine.validate(invalid); }
+}
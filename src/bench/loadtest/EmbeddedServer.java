@@ -0,0 +1,81 @@
+package loadtest;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.apache.catalina.Context;
+import org.apache.catalina.LifecycleException;
+import org.apache.catalina.Wrapper;
+import org.apache.catalina.connector.Connector;
+import org.apache.catalina.startup.Tomcat;
+
+import controller.FrontController;
+
+// FrontController deployed with the controllers of loadtest.app in an embedded Tomcat on
+// localhost, the way web.xml would declare it; views are served by ViewServlet
+final class EmbeddedServer {
+
+    static final String PROJECT = "shop";
+
+    private final Tomcat tomcat;
+    private final int port;
+
+    private EmbeddedServer(Tomcat tomcat, int port) {
+        this.tomcat = tomcat;
+        this.port = port;
+    }
+
+    // port 0 picks a free port; parameters override the context parameters set here
+    static EmbeddedServer start(int port, int threads, Map<String, String> parameters)
+        throws Exception
+    {
+        Path baseDir = Files.createTempDirectory("loadtest-tomcat");
+
+        Tomcat tomcat = new Tomcat();
+        tomcat.setBaseDir(baseDir.toString());
+        tomcat.setPort(port);
+
+        Connector connector = tomcat.getConnector();
+        connector.setProperty("maxThreads", String.valueOf(threads));
+
+        // the virtual users keep their connections for the whole run
+        connector.setProperty("maxKeepAliveRequests", "-1");
+
+        Map<String, String> contextParameters = new LinkedHashMap<>();
+        contextParameters.put("base_package", "loadtest.app");
+        contextParameters.put("project_name", PROJECT);
+        contextParameters.put("log_level", "WARN");
+        contextParameters.put("metrics_path", "/metrics");
+        contextParameters.putAll(parameters);
+
+        Context context = tomcat.addContext("/" + PROJECT, baseDir.toString());
+        for (Map.Entry<String, String> parameter : contextParameters.entrySet())
+        { context.addParameter(parameter.getKey(), parameter.getValue()); }
+
+        Wrapper front = Tomcat.addServlet(context, "FrontController", new FrontController());
+        front.setAsyncSupported(true);
+        front.setLoadOnStartup(1);
+        context.addServletMappingDecoded("/", "FrontController");
+
+        Tomcat.addServlet(context, "views", new ViewServlet());
+        context.addServletMappingDecoded("*.jsp", "views");
+
+        tomcat.start();
+        return new EmbeddedServer(tomcat, connector.getLocalPort());
+    }
+
+    String getBaseURL()
+    { return "http://localhost:" + port + "/" + PROJECT; }
+
+    void await()
+    { tomcat.getServer().await(); }
+
+    void stop()
+        throws LifecycleException
+    {
+        tomcat.stop();
+        tomcat.destroy();
+    }
+}
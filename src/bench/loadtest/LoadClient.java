@@ -0,0 +1,87 @@
+package loadtest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.List;
+import java.util.Map;
+
+// one virtual user: a keep-alive connection reused by HttpURLConnection and its own session cookie
+final class LoadClient {
+
+    private static final int TIMEOUT_MILLIS = 30_000;
+
+    private final String baseURL;
+    private final byte[] buffer = new byte[16 * 1024];
+    private String sessionCookie;
+    private int sequence;
+
+    LoadClient(String baseURL, int user) {
+        this.baseURL = baseURL;
+        this.sequence = user * 7919;
+    }
+
+    // the status code; the body is read to the end so the connection goes back to the keep-alive cache
+    int send(Scenario scenario)
+        throws IOException
+    {
+        int current = sequence++ & Integer.MAX_VALUE;
+
+        HttpURLConnection connection = (HttpURLConnection) new URL(baseURL + scenario.getPath(current)).openConnection();
+        connection.setRequestMethod(scenario.getMethod());
+        connection.setInstanceFollowRedirects(false);
+        connection.setUseCaches(false);
+        connection.setConnectTimeout(TIMEOUT_MILLIS);
+        connection.setReadTimeout(TIMEOUT_MILLIS);
+
+        for (Map.Entry<String, String> header : scenario.getHeaders().entrySet())
+        { connection.setRequestProperty(header.getKey(), header.getValue()); }
+
+        if (scenario.keepsSession() && sessionCookie != null)
+        { connection.setRequestProperty("Cookie", sessionCookie); }
+
+        byte[] body = scenario.getBody(current);
+        if (body != null) {
+            connection.setDoOutput(true);
+            connection.setRequestProperty("Content-Type", scenario.getContentType());
+            connection.setFixedLengthStreamingMode(body.length);
+
+            try (OutputStream out = connection.getOutputStream())
+            { out.write(body); }
+        }
+
+        int status = connection.getResponseCode();
+        if (scenario.keepsSession())
+        { rememberSession(connection.getHeaderFields()); }
+
+        InputStream in = status >= 400 ? connection.getErrorStream() : connection.getInputStream();
+        if (in != null) {
+            try {
+                while (in.read(buffer) >= 0)
+                { }
+            }
+
+            finally
+            { in.close(); }
+        }
+
+        return status;
+    }
+
+    // header names are case-insensitive, the map of HttpURLConnection is not
+    private void rememberSession(Map<String, List<String>> headers) {
+        for (Map.Entry<String, List<String>> header : headers.entrySet()) {
+            if (header.getKey() == null || !header.getKey().equalsIgnoreCase("Set-Cookie"))
+            { continue; }
+
+            for (String cookie : header.getValue()) {
+                if (cookie.startsWith("JSESSIONID=")) {
+                    int end = cookie.indexOf(';');
+                    sessionCookie = end > 0 ? cookie.substring(0, end) : cookie;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package loadtest;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import metrics.LatencyHistogram;
+
+// end-to-end load test of FrontController in an embedded Tomcat, driven over HTTP on localhost
+//   --mode=closed|open       closed loop by default
+//   --users=N                virtual users, in open loop the bound on requests in flight (32, 256 open)
+//   --rate=N                 requests per second of the open loop (1000)
+//   --warmup=S --duration=S  seconds, 10 and 30 by default
+//   --mix=name:weight,...    scenarios: view, rest, form, invalid, upload, export, archive
+//   --upload-size=BYTES      size of the uploaded file (65536)
+//   --port=N                 port of the embedded server, 0 for any free port
+//   --server-threads=N       Tomcat request threads (200)
+//   --param.NAME=VALUE       context parameter of FrontController, e.g. --param.dispatch_mode=virtual
+//   --check                  only run the view check done before every load
+//   --serve                  only start the server, to load it from another JVM or machine
+//   --target=URL             load a running server instead, e.g. http://localhost:8080/shop
+public final class LoadHarness {
+
+    private static final String DEFAULT_MIX = "view:25,rest:30,form:15,invalid:10,upload:5,export:10,archive:5";
+
+    private LoadHarness()
+    { }
+
+    public static void main(String[] args)
+        throws Exception
+    {
+        Map<String, String> options = new LinkedHashMap<>();
+        Map<String, String> parameters = new LinkedHashMap<>();
+
+        for (String arg : args) {
+            if (!arg.startsWith("--"))
+            { usage("Unexpected argument " + arg); }
+
+            int equals = arg.indexOf('=');
+            String name = equals > 0 ? arg.substring(2, equals) : arg.substring(2);
+            String value = equals > 0 ? arg.substring(equals + 1) : "true";
+
+            if (name.startsWith("param."))
+            { parameters.put(name.substring("param.".length()), value); }
+
+            else
+            { options.put(name, value); }
+        }
+
+        try
+        { run(options, parameters); }
+
+        catch (IllegalArgumentException e)
+        { usage(e.getMessage()); }
+    }
+
+    private static void run(Map<String, String> options, Map<String, String> parameters)
+        throws Exception
+    {
+        String modeName = option(options, "mode", "closed");
+        if (!modeName.equals("closed") && !modeName.equals("open"))
+        { throw new IllegalArgumentException("--mode is closed or open"); }
+
+        Workload.Mode mode = Workload.Mode.valueOf(modeName.toUpperCase(Locale.ROOT));
+        int users = positive(options, "users", mode == Workload.Mode.OPEN ? 256 : 32);
+        int rate = positive(options, "rate", 1000);
+        int warmup = positive(options, "warmup", 10);
+        int duration = positive(options, "duration", 30);
+        int uploadSize = positive(options, "upload-size", 64 * 1024);
+        int port = Integer.parseInt(option(options, "port", "0"));
+        int serverThreads = positive(options, "server-threads", 200);
+        String target = options.remove("target");
+        boolean serveOnly = Boolean.parseBoolean(options.remove("serve"));
+        boolean checkOnly = Boolean.parseBoolean(options.remove("check"));
+
+        List<Scenario> scenarios = new ArrayList<>();
+        List<Integer> weights = new ArrayList<>();
+        mix(option(options, "mix", DEFAULT_MIX), Scenario.all(uploadSize), scenarios, weights);
+
+        if (!options.isEmpty())
+        { throw new IllegalArgumentException("Unknown options " + options.keySet()); }
+
+        // every user keeps its connection in the JDK keep-alive cache, 5 per host by default
+        System.setProperty("http.maxConnections", String.valueOf(users));
+
+        EmbeddedServer server = target == null ? EmbeddedServer.start(port, serverThreads, parameters) : null;
+        String baseURL = target != null ? trimSlash(target) : server.getBaseURL();
+
+        try {
+            if (serveOnly) {
+                if (server == null)
+                { throw new IllegalArgumentException("--serve starts the embedded server, it cannot be used with --target"); }
+
+                System.out.println("Serving " + baseURL + ", metrics at " + baseURL + "/metrics");
+                server.await();
+                return;
+            }
+
+            ViewCheck.run(baseURL);
+            System.out.println("View check passed: " + ViewCheck.PATH + " decodes to \"" + ViewCheck.EXPECTED + "\"");
+
+            if (checkOnly)
+            { return; }
+
+            System.out.println("Loading " + baseURL);
+            Workload workload = new Workload(mode, users, rate, TimeUnit.SECONDS.toNanos(warmup), TimeUnit.SECONDS.toNanos(duration), baseURL, scenarios, weights);
+            ScenarioStats[] stats = workload.run();
+            report(System.out, workload, stats);
+        }
+
+        finally {
+            if (server != null)
+            { server.stop(); }
+        }
+    }
+
+    private static void mix(String mix, List<Scenario> available, List<Scenario> scenarios, List<Integer> weights) {
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.trim().split(":");
+            if (parts.length != 2 || !parts[1].matches("[0-9]{1,6}"))
+            { throw new IllegalArgumentException("Mix entries are name:weight, not " + entry); }
+
+            Scenario scenario = null;
+            for (Scenario candidate : available) {
+                if (candidate.getName().equals(parts[0]))
+                { scenario = candidate; }
+            }
+
+            if (scenario == null)
+            { throw new IllegalArgumentException("Unknown scenario " + parts[0]); }
+
+            int weight = Integer.parseInt(parts[1]);
+            if (weight > 0) {
+                scenarios.add(scenario);
+                weights.add(weight);
+            }
+        }
+
+        if (scenarios.isEmpty())
+        { throw new IllegalArgumentException("The mix has no scenario with a positive weight"); }
+    }
+
+    private static void report(PrintStream out, Workload workload, ScenarioStats[] stats) {
+        double seconds = workload.getElapsedNanos() / 1e9;
+
+        if (workload.getMode() == Workload.Mode.OPEN)
+        { out.printf(Locale.ROOT, "open loop, %.0f req/s scheduled, at most %d in flight, %.1f s measured%n", workload.getRate(), workload.getUsers(), seconds); }
+
+        else
+        { out.printf(Locale.ROOT, "closed loop, %d users, %.1f s measured%n", workload.getUsers(), seconds); }
+
+        out.printf(Locale.ROOT, "%-10s %10s %8s %10s %10s %10s %10s %10s%n", "scenario", "requests", "errors", "req/s", "p50 ms", "p99 ms", "p999 ms", "max ms");
+        for (ScenarioStats scenario : stats)
+        { line(out, scenario, seconds); }
+
+        line(out, workload.getTotal(), seconds);
+
+        for (ScenarioStats scenario : stats) {
+            if (scenario.getLastError() != null)
+            { out.println(scenario.getName() + ": " + scenario.getErrors() + " errors, last: " + scenario.getLastError()); }
+        }
+
+        // an open loop the server cannot keep up with measures a growing queue
+        double achieved = workload.getTotal().getLatency().getCount() / seconds;
+        if (workload.getMode() == Workload.Mode.OPEN && achieved < workload.getRate() * 0.95)
+        { out.printf(Locale.ROOT, "saturated: %.0f req/s completed out of %.0f scheduled%n", achieved, workload.getRate()); }
+    }
+
+    private static void line(PrintStream out, ScenarioStats scenario, double seconds) {
+        LatencyHistogram latency = scenario.getLatency();
+        out.printf(Locale.ROOT, "%-10s %10d %8d %10.1f %10.2f %10.2f %10.2f %10.2f%n",
+            scenario.getName(),
+            latency.getCount(),
+            scenario.getErrors(),
+            latency.getCount() / seconds,
+            latency.getQuantileMicros(0.50) / 1000.0,
+            latency.getQuantileMicros(0.99) / 1000.0,
+            latency.getQuantileMicros(0.999) / 1000.0,
+            latency.getMaxMicros() / 1000.0);
+    }
+
+    private static String option(Map<String, String> options, String name, String defaultValue) {
+        String value = options.remove(name);
+        return value != null ? value : defaultValue;
+    }
+
+    private static int positive(Map<String, String> options, String name, int defaultValue) {
+        String value = options.remove(name);
+        if (value == null)
+        { return defaultValue; }
+
+        if (!value.matches("[1-9][0-9]{0,8}"))
+        { throw new IllegalArgumentException("--" + name + " must be a positive integer"); }
+
+        return Integer.parseInt(value);
+    }
+
+    private static String trimSlash(String url)
+    { return url.endsWith("/") ? url.substring(0, url.length() - 1) : url; }
+
+    private static void usage(String message) {
+        System.err.println(message);
+        System.err.println("usage: LoadHarness [--mode=closed|open] [--users=N] [--rate=N] [--warmup=S] [--duration=S] [--mix=name:weight,...] [--upload-size=BYTES] [--port=N] [--server-threads=N] [--param.NAME=VALUE] [--check | --serve | --target=URL]");
+        System.exit(2);
+    }
+}
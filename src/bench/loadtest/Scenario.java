@@ -0,0 +1,121 @@
+package loadtest;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.IntFunction;
+
+// one kind of request of the workload and the status it must answer with;
+// sequence numbers vary the path or the body from one request to the next
+final class Scenario {
+
+    private final String name;
+    private final String method;
+    private final IntFunction<String> path;
+    private final IntFunction<byte[]> body;
+    private final String contentType;
+    private final Map<String, String> headers;
+    private final int expectedStatus;
+    private final boolean keepsSession;
+
+    private Scenario(String name, String method, IntFunction<String> path, IntFunction<byte[]> body, String contentType, Map<String, String> headers, int expectedStatus, boolean keepsSession) {
+        this.name = name;
+        this.method = method;
+        this.path = path;
+        this.body = body;
+        this.contentType = contentType;
+        this.headers = headers;
+        this.expectedStatus = expectedStatus;
+        this.keepsSession = keepsSession;
+    }
+
+    // GET/POST views, REST, validation failures, uploads and exports of loadtest.app
+    static List<Scenario> all(int uploadSize) {
+        List<Scenario> scenarios = new ArrayList<>();
+
+        scenarios.add(new Scenario("view", "GET", sequence -> "/products/" + sequence % 200,
+            null, null, Collections.<String, String>emptyMap(), 200, true));
+
+        scenarios.add(new Scenario("rest", "GET", sequence -> "/api/products?page=" + sequence % 10,
+            null, null, Collections.<String, String>emptyMap(), 200, true));
+
+        scenarios.add(new Scenario("form", "POST", sequence -> "/orders/new",
+            sequence -> form("customer=Rakoto+Jean&email=rakoto%40example.mg&product=" + sequence % 200 + "&quantity=" + (sequence % 5 + 1) + "&note=Leave+at+the+door"),
+            "application/x-www-form-urlencoded", Collections.<String, String>emptyMap(), 200, true));
+
+        // without a session there is no form to re-render, the framework redirects to the Referer
+        Map<String, String> referer = new LinkedHashMap<>();
+        referer.put("Referer", "/" + EmbeddedServer.PROJECT + "/orders/new");
+        scenarios.add(new Scenario("invalid", "POST", sequence -> "/orders/new",
+            sequence -> form("customer=R&product=&quantity=-" + (sequence % 5 + 1)),
+            "application/x-www-form-urlencoded", referer, 302, false));
+
+        String boundary = "----loadtest" + Long.toHexString(new Random(7).nextLong());
+        byte[] multipart = multipart(boundary, uploadSize);
+        scenarios.add(new Scenario("upload", "POST", sequence -> "/uploads", sequence -> multipart,
+            "multipart/form-data; boundary=" + boundary, Collections.<String, String>emptyMap(), 200, true));
+
+        Map<String, String> gzip = new LinkedHashMap<>();
+        gzip.put("Accept-Encoding", "gzip");
+        scenarios.add(new Scenario("export", "GET", sequence -> "/exports/products.csv",
+            null, null, gzip, 200, true));
+
+        scenarios.add(new Scenario("archive", "GET", sequence -> "/exports/archive",
+            null, null, Collections.<String, String>emptyMap(), 200, true));
+
+        return scenarios;
+    }
+
+    private static byte[] form(String encoded)
+    { return encoded.getBytes(StandardCharsets.US_ASCII); }
+
+    private static byte[] multipart(String boundary, int size) {
+        byte[] content = new byte[size];
+        new Random(11).nextBytes(content);
+
+        ByteArrayOutputStream body = new ByteArrayOutputStream(size + 512);
+        String head = "--" + boundary + "\r\n"
+            + "Content-Disposition: form-data; name=\"label\"\r\n\r\n"
+            + "load test\r\n"
+            + "--" + boundary + "\r\n"
+            + "Content-Disposition: form-data; name=\"file\"; filename=\"sample.bin\"\r\n"
+            + "Content-Type: application/octet-stream\r\n\r\n";
+
+        body.write(head.getBytes(StandardCharsets.US_ASCII), 0, head.length());
+        body.write(content, 0, content.length);
+
+        byte[] tail = ("\r\n--" + boundary + "--\r\n").getBytes(StandardCharsets.US_ASCII);
+        body.write(tail, 0, tail.length);
+        return body.toByteArray();
+    }
+
+    String getName()
+    { return name; }
+
+    String getMethod()
+    { return method; }
+
+    String getPath(int sequence)
+    { return path.apply(sequence); }
+
+    // null for requests without a body
+    byte[] getBody(int sequence)
+    { return body != null ? body.apply(sequence) : null; }
+
+    String getContentType()
+    { return contentType; }
+
+    Map<String, String> getHeaders()
+    { return headers; }
+
+    int getExpectedStatus()
+    { return expectedStatus; }
+
+    boolean keepsSession()
+    { return keepsSession; }
+}
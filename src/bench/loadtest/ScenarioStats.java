@@ -0,0 +1,40 @@
+package loadtest;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import metrics.LatencyHistogram;
+
+// latencies of the measured requests of one scenario, failed requests included
+final class ScenarioStats {
+
+    private final String name;
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final LongAdder errors = new LongAdder();
+    private volatile String lastError;
+
+    ScenarioStats(String name) {
+        this.name = name;
+    }
+
+    void record(long nanos)
+    { latency.recordNanos(nanos); }
+
+    // an unexpected status or an I/O failure
+    void recordError(long nanos, String error) {
+        latency.recordNanos(nanos);
+        errors.increment();
+        lastError = error;
+    }
+
+    String getName()
+    { return name; }
+
+    LatencyHistogram getLatency()
+    { return latency; }
+
+    long getErrors()
+    { return errors.sum(); }
+
+    String getLastError()
+    { return lastError; }
+}
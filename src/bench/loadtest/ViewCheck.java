@@ -0,0 +1,66 @@
+package loadtest;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.zip.GZIPInputStream;
+
+// run before the workload: a view fetched with gzip, as browsers ask for it, must decode to its
+// non-ASCII heading in the charset named by its Content-Type, which the view sets after the
+// framework took the writer
+final class ViewCheck {
+
+    static final String PATH = "/products/7";
+
+    // escaped so the sources do not depend on the platform encoding
+    static final String EXPECTED = "D\u00e9tail du produit n\u00b07";
+
+    private ViewCheck()
+    { }
+
+    static void run(String baseURL)
+        throws IOException
+    {
+        HttpURLConnection connection = (HttpURLConnection) new URL(baseURL + PATH).openConnection();
+        connection.setRequestProperty("Accept-Encoding", "gzip");
+        connection.setUseCaches(false);
+
+        int status = connection.getResponseCode();
+        if (status != 200)
+        { throw new IllegalStateException("View check: GET " + PATH + " answered " + status); }
+
+        String contentType = connection.getContentType();
+        String encoding = connection.getContentEncoding();
+
+        byte[] body;
+        try (InputStream in = "gzip".equalsIgnoreCase(encoding) ? new GZIPInputStream(connection.getInputStream()) : connection.getInputStream())
+        { body = readAll(in); }
+
+        String page = new String(body, charset(contentType));
+        if (!page.contains(EXPECTED))
+        { throw new IllegalStateException("View check: GET " + PATH + " (" + contentType + ", " + (encoding != null ? encoding : "identity") + ") does not contain \"" + EXPECTED + "\": " + page); }
+    }
+
+    private static Charset charset(String contentType) {
+        int index = contentType != null ? contentType.toLowerCase(Locale.ROOT).indexOf("charset=") : -1;
+        return index >= 0 ? Charset.forName(contentType.substring(index + "charset=".length()).trim()) : StandardCharsets.ISO_8859_1;
+    }
+
+    private static byte[] readAll(InputStream in)
+        throws IOException
+    {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int read;
+
+        while ((read = in.read(buffer)) >= 0)
+        { bytes.write(buffer, 0, read); }
+
+        return bytes.toByteArray();
+    }
+}
@@ -0,0 +1,56 @@
+package loadtest;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Enumeration;
+
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+// stands in for the JSPs: the forwarded view path and the attributes the framework set,
+// so rendering costs a forward and a small page without a JSP compiler in the container
+public class ViewServlet extends HttpServlet {
+
+    @Override
+    protected void service(HttpServletRequest request, HttpServletResponse response)
+        throws IOException
+    {
+        response.setContentType("text/html;charset=UTF-8");
+        PrintWriter out = response.getWriter();
+
+        out.print("<!DOCTYPE html><html><head><title>");
+        out.print(escape(request.getServletPath()));
+        out.print("</title></head><body><dl>");
+
+        Enumeration<String> names = request.getAttributeNames();
+        while (names.hasMoreElements()) {
+            String name = names.nextElement();
+            if (name.startsWith("javax.") || name.startsWith("org.apache."))
+            { continue; }
+
+            out.print("<dt>");
+            out.print(escape(name));
+            out.print("</dt><dd>");
+            out.print(escape(String.valueOf(request.getAttribute(name))));
+            out.print("</dd>");
+        }
+
+        out.print("</dl></body></html>");
+    }
+
+    private static String escape(String text) {
+        StringBuilder escaped = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '<': escaped.append("&lt;"); break;
+                case '>': escaped.append("&gt;"); break;
+                case '&': escaped.append("&amp;"); break;
+                case '"': escaped.append("&quot;"); break;
+                default: escaped.append(c);
+            }
+        }
+        return escaped.toString();
+    }
+}
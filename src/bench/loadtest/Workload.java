@@ -0,0 +1,166 @@
+package loadtest;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+// drives the scenarios with a fixed number of virtual users for a warmup, whose requests are
+// not recorded, then for the measured duration
+//   closed loop: each user sends its next request as soon as the previous one is answered,
+//                the server sets the pace and latency is measured from the send
+//   open loop: requests are scheduled at a fixed rate whatever the server does; latency is
+//              measured from the scheduled time, so a stalled server is not hidden by users
+//              waiting instead of sending (coordinated omission), and users only bound the
+//              requests in flight
+final class Workload {
+
+    enum Mode { CLOSED, OPEN }
+
+    private final Mode mode;
+    private final int users;
+    private final double rate;
+    private final long warmupNanos;
+    private final long durationNanos;
+    private final String baseURL;
+
+    private final Scenario[] scenarios;
+    private final int[] cumulativeWeights;
+    private final ScenarioStats[] stats;
+    private final ScenarioStats total = new ScenarioStats("total");
+    private long elapsedNanos;
+
+    Workload(Mode mode, int users, double rate, long warmupNanos, long durationNanos, String baseURL, List<Scenario> scenarios, List<Integer> weights) {
+        this.mode = mode;
+        this.users = users;
+        this.rate = rate;
+        this.warmupNanos = warmupNanos;
+        this.durationNanos = durationNanos;
+        this.baseURL = baseURL;
+
+        this.scenarios = scenarios.toArray(new Scenario[0]);
+        this.cumulativeWeights = new int[weights.size()];
+        this.stats = new ScenarioStats[scenarios.size()];
+
+        int total = 0;
+        for (int i = 0; i < this.scenarios.length; i++) {
+            total += weights.get(i);
+            cumulativeWeights[i] = total;
+            stats[i] = new ScenarioStats(this.scenarios[i].getName());
+        }
+    }
+
+    ScenarioStats[] run()
+        throws InterruptedException
+    {
+        long start = System.nanoTime();
+        long measured = start + warmupNanos;
+        long end = measured + durationNanos;
+
+        // next slot of the open-loop schedule, claimed by whichever user is free
+        AtomicLong slots = new AtomicLong();
+        long interval = mode == Mode.OPEN ? (long) (TimeUnit.SECONDS.toNanos(1) / rate) : 0;
+
+        Thread[] threads = new Thread[users];
+        for (int i = 0; i < users; i++) {
+            LoadClient client = new LoadClient(baseURL, i);
+
+            Runnable user = mode == Mode.CLOSED
+                ? () -> closedLoop(client, measured, end)
+                : () -> openLoop(client, slots, start, interval, measured, end);
+
+            threads[i] = new Thread(user, "load-user-" + i);
+            threads[i].start();
+        }
+
+        for (Thread thread : threads)
+        { thread.join(); }
+
+        // late requests of a saturated open loop complete after the scheduled end
+        elapsedNanos = System.nanoTime() - measured;
+        return stats;
+    }
+
+    private void closedLoop(LoadClient client, long measured, long end) {
+        long sent;
+        while ((sent = System.nanoTime()) - end < 0)
+        { execute(client, sent, sent - measured >= 0); }
+    }
+
+    private void openLoop(LoadClient client, AtomicLong slots, long start, long interval, long measured, long end) {
+        while (true) {
+            long scheduled = start + slots.getAndIncrement() * interval;
+            if (scheduled - end >= 0)
+            { return; }
+
+            long wait;
+            while ((wait = scheduled - System.nanoTime()) > 0)
+            { LockSupport.parkNanos(wait); }
+
+            execute(client, scheduled, scheduled - measured >= 0);
+        }
+    }
+
+    // latency runs from since, the send time or the scheduled time
+    private void execute(LoadClient client, long since, boolean record) {
+        int index = pick();
+        Scenario scenario = scenarios[index];
+
+        try {
+            int status = client.send(scenario);
+            if (!record)
+            { return; }
+
+            if (status == scenario.getExpectedStatus())
+            { record(index, System.nanoTime() - since, null); }
+
+            else
+            { record(index, System.nanoTime() - since, "status " + status + " instead of " + scenario.getExpectedStatus()); }
+        }
+
+        catch (IOException e) {
+            if (record)
+            { record(index, System.nanoTime() - since, e.toString()); }
+        }
+    }
+
+    // error is null for an expected answer
+    private void record(int index, long nanos, String error) {
+        if (error == null) {
+            stats[index].record(nanos);
+            total.record(nanos);
+        }
+
+        else {
+            stats[index].recordError(nanos, error);
+            total.recordError(nanos, error);
+        }
+    }
+
+    private int pick() {
+        int draw = ThreadLocalRandom.current().nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (draw < cumulativeWeights[i])
+            { return i; }
+        }
+        return cumulativeWeights.length - 1;
+    }
+
+    ScenarioStats getTotal()
+    { return total; }
+
+    Mode getMode()
+    { return mode; }
+
+    int getUsers()
+    { return users; }
+
+    double getRate()
+    { return rate; }
+
+    // from the end of the warmup to the last answer
+    long getElapsedNanos()
+    { return elapsedNanos; }
+}
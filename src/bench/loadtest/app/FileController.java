@@ -0,0 +1,73 @@
+package loadtest.app;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import annotation.AnnotationController;
+import annotation.AnnotationFileUpload;
+import annotation.AnnotationGetMapping;
+import annotation.AnnotationPostMapping;
+import annotation.AnnotationRequestParam;
+import annotation.AnnotationRestAPI;
+import annotation.AnnotationURL;
+import response.FileExportResult;
+import upload.FileUpload;
+
+@AnnotationController(name = "files")
+public class FileController {
+
+    private static final byte[] CSV = csv();
+    private static final Path ARCHIVE = archive(1024 * 1024);
+
+    // the upload is not saved, the framework deletes its temporary file after the request
+    @AnnotationURL("/uploads")
+    @AnnotationPostMapping
+    @AnnotationRestAPI
+    public UploadReceipt upload(
+        @AnnotationFileUpload(value = "file", maxFileSize = 8 * 1024 * 1024, maxRequestSize = 10 * 1024 * 1024) FileUpload file,
+        @AnnotationRequestParam(name = "label") String label)
+    {
+        if (file == null)
+        { throw new IllegalArgumentException("No file uploaded"); }
+
+        return new UploadReceipt(file.getFileName(), label, file.getSize(), file.getChecksum());
+    }
+
+    // textual export, compressed when the client accepts it
+    @AnnotationURL("/exports/products.csv")
+    @AnnotationGetMapping
+    public FileExportResult products()
+    { return new FileExportResult(CSV, "text/csv", "products.csv"); }
+
+    // file-backed export, sent by Tomcat's sendfile when the connector offers it
+    @AnnotationURL("/exports/archive")
+    @AnnotationGetMapping
+    public FileExportResult archive()
+    { return new FileExportResult(ARCHIVE, "application/octet-stream", "archive.bin"); }
+
+    private static byte[] csv() {
+        StringBuilder csv = new StringBuilder("id;name;category;price;stock\n");
+        for (Product product : Product.catalog(2000))
+        { csv.append(product.getId()).append(';').append(product.getName()).append(';').append(product.getCategory()).append(';').append(product.getPrice()).append(';').append(product.getStock()).append('\n'); }
+
+        return csv.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static Path archive(int size) {
+        try {
+            byte[] content = new byte[size];
+            new Random(42).nextBytes(content);
+
+            Path path = Files.createTempFile("loadtest-archive", ".bin");
+            path.toFile().deleteOnExit();
+            return Files.write(path, content);
+        }
+
+        catch (IOException e)
+        { throw new UncheckedIOException(e); }
+    }
+}
@@ -0,0 +1,32 @@
+package loadtest.app;
+
+import annotation.AnnotationController;
+import annotation.AnnotationGetMapping;
+import annotation.AnnotationModelAttribute;
+import annotation.AnnotationPostMapping;
+import annotation.AnnotationURL;
+import modelview.ModelView;
+import validation.Valid;
+
+// an invalid post re-renders the form stored in the session by the last GET, or without
+// one is redirected to its Referer
+@AnnotationController(name = "orders")
+public class OrderController {
+
+    @AnnotationURL("/orders/new")
+    @AnnotationGetMapping
+    public ModelView form() {
+        ModelView view = new ModelView("orders/form.jsp");
+        view.add("products", ProductController.CATALOG.size());
+        return view;
+    }
+
+    @AnnotationURL("/orders/new")
+    @AnnotationPostMapping
+    public ModelView create(@AnnotationModelAttribute("order") @Valid OrderForm order) {
+        ModelView view = new ModelView("orders/created.jsp");
+        view.add("order", order);
+        view.add("product", ProductController.CATALOG.get(Math.floorMod(order.getProduct(), ProductController.CATALOG.size())));
+        return view;
+    }
+}
@@ -0,0 +1,39 @@
+package loadtest.app;
+
+import validation.NotNull;
+import validation.Number;
+import validation.Size;
+import validation.Valid;
+
+@Valid
+public class OrderForm {
+
+    @NotNull
+    @Size(min = 2, max = 60, message = "The customer name has {min} to {max} characters")
+    private String customer;
+
+    private String email;
+
+    @NotNull
+    private Integer product;
+
+    @NotNull
+    @Number(canBeNegative = false, message = "The quantity cannot be negative")
+    private Integer quantity;
+
+    @Size(max = 500)
+    private String note;
+
+    public String getCustomer()
+    { return customer; }
+
+    public Integer getProduct()
+    { return product; }
+
+    public Integer getQuantity()
+    { return quantity; }
+
+    @Override
+    public String toString()
+    { return quantity + " x product " + product + " for " + customer; }
+}
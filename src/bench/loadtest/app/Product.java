@@ -0,0 +1,51 @@
+package loadtest.app;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+public class Product {
+
+    private final int id;
+    private final String name;
+    private final String category;
+    private final BigDecimal price;
+    private final int stock;
+
+    public Product(int id, String name, String category, BigDecimal price, int stock) {
+        this.id = id;
+        this.name = name;
+        this.category = category;
+        this.price = price;
+        this.stock = stock;
+    }
+
+    public static List<Product> catalog(int size) {
+        String[] categories = { "books", "music", "garden", "kitchen", "toys" };
+        List<Product> products = new ArrayList<>(size);
+
+        for (int i = 0; i < size; i++)
+        { products.add(new Product(i, "Product " + i, categories[i % categories.length], new BigDecimal("4.99").add(BigDecimal.valueOf(i, 1)), i * 7 % 120)); }
+
+        return products;
+    }
+
+    public int getId()
+    { return id; }
+
+    public String getName()
+    { return name; }
+
+    public String getCategory()
+    { return category; }
+
+    public BigDecimal getPrice()
+    { return price; }
+
+    public int getStock()
+    { return stock; }
+
+    @Override
+    public String toString()
+    { return name + " (" + category + ", " + price + ")"; }
+}
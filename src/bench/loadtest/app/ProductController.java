@@ -0,0 +1,47 @@
+package loadtest.app;
+
+import java.util.List;
+
+import annotation.AnnotationController;
+import annotation.AnnotationGetMapping;
+import annotation.AnnotationPathVariable;
+import annotation.AnnotationRequestParam;
+import annotation.AnnotationRestAPI;
+import annotation.AnnotationURL;
+import modelview.ModelView;
+
+@AnnotationController(name = "products")
+public class ProductController {
+
+    static final List<Product> CATALOG = Product.catalog(200);
+    private static final int PAGE_SIZE = 20;
+
+    // rendered by a forward to the view servlet
+    @AnnotationURL("/products/{id}")
+    @AnnotationGetMapping
+    public ModelView show(@AnnotationPathVariable("id") int id) {
+        ModelView view = new ModelView("products/show.jsp");
+        view.add("heading", "D\u00e9tail du produit n\u00b0" + id);
+        view.add("product", CATALOG.get(Math.floorMod(id, CATALOG.size())));
+        return view;
+    }
+
+    // anonymous API calls, no HttpSession is created for them
+    @AnnotationURL("/api/products")
+    @AnnotationGetMapping
+    @AnnotationRestAPI(stateless = true)
+    public List<Product> list(@AnnotationRequestParam(name = "page") int page) {
+        int from = Math.floorMod(page, CATALOG.size() / PAGE_SIZE) * PAGE_SIZE;
+        return CATALOG.subList(from, from + PAGE_SIZE);
+    }
+
+    @AnnotationURL("/api/products/{id}")
+    @AnnotationGetMapping
+    @AnnotationRestAPI(stateless = true)
+    public Product find(@AnnotationPathVariable("id") int id) {
+        if (id < 0 || id >= CATALOG.size())
+        { throw new IllegalArgumentException("No product " + id); }
+
+        return CATALOG.get(id);
+    }
+}
@@ -0,0 +1,28 @@
+package loadtest.app;
+
+public class UploadReceipt {
+
+    private final String fileName;
+    private final String label;
+    private final long size;
+    private final long checksum;
+
+    public UploadReceipt(String fileName, String label, long size, long checksum) {
+        this.fileName = fileName;
+        this.label = label;
+        this.size = size;
+        this.checksum = checksum;
+    }
+
+    public String getFileName()
+    { return fileName; }
+
+    public String getLabel()
+    { return label; }
+
+    public long getSize()
+    { return size; }
+
+    public long getChecksum()
+    { return checksum; }
+}
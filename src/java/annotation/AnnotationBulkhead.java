@@ -0,0 +1,16 @@
+package annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// caps the number of requests a route runs at once, the others wait up to maxWaitMillis
+// and are then answered with 503
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface AnnotationBulkhead {
+    int value();
+
+    long maxWaitMillis() default 0;
+}
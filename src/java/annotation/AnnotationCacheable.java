@@ -0,0 +1,16 @@
+package annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// caches the result of a GET handler, keyed by route, path variables and query parameters
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface AnnotationCacheable {
+    long ttlSeconds() default 60;
+
+    // separate entries per session "profile", for results that depend on the user's role
+    boolean perProfile() default false;
+}
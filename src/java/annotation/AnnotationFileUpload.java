@@ -10,4 +10,8 @@ import java.lang.annotation.Target;
 public @interface AnnotationFileUpload {
     String value() default "";
     boolean multiple() default false;
-}
\ No newline at end of file
+
+    // bytes, -1 for no limit; the strictest value of the method's upload parameters applies
+    long maxFileSize() default -1;
+    long maxRequestSize() default -1;
+}
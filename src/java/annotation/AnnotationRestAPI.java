@@ -7,5 +7,8 @@ import java.lang.annotation.Target;
 
 @Retention(RetentionPolicy.RUNTIME)
 @Target(ElementType.METHOD)
-public @interface AnnotationRestAPI 
-{ }
\ No newline at end of file
+public @interface AnnotationRestAPI {
+
+    // the route never reads or creates an HttpSession, checked at startup
+    boolean stateless() default false;
+}
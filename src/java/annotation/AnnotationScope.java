@@ -0,0 +1,16 @@
+package annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import scope.ControllerScope;
+
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface AnnotationScope {
+    ControllerScope value() default ControllerScope.REQUEST;
+    int poolSize() default 16;
+    long acquireTimeoutMillis() default 5000;
+}
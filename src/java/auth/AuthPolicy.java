@@ -0,0 +1,82 @@
+package auth;
+
+import java.lang.reflect.Method;
+
+import annotation.Auth;
+import annotation.AuthController;
+import exception.BuildException;
+import logging.Logger;
+import session.Session;
+
+// access rule of one handler resolved at scan time from @AuthController and @Auth: both levels
+// require an authenticated session, and the session's role must be allowed by each level that
+// lists roles, so the two role lists are intersected into a single mask
+public final class AuthPolicy {
+
+    private static final Logger log = Logger.getLogger(AuthPolicy.class);
+
+    public static final AuthPolicy PUBLIC = new AuthPolicy(false, false, 0);
+
+    private final boolean authenticated;
+    private final boolean restricted;
+    private final long roles;
+
+    private AuthPolicy(boolean authenticated, boolean restricted, long roles) {
+        this.authenticated = authenticated;
+        this.restricted = restricted;
+        this.roles = roles;
+    }
+
+    public static AuthPolicy forHandler(Method method) 
+        throws BuildException 
+    {
+        Class<?> controllerClass = method.getDeclaringClass();
+        AuthController controllerAuth = controllerClass.getAnnotation(AuthController.class);
+        Auth methodAuth = method.getAnnotation(Auth.class);
+
+        if (controllerAuth == null && methodAuth == null) 
+        { return PUBLIC; }
+
+        String target = controllerClass.getName() + "." + method.getName();
+        boolean restricted = false;
+        long roles = -1L;
+
+        if (controllerAuth != null && listsRoles(controllerAuth.roles())) {
+            roles &= RoleRegistry.intern(controllerAuth.roles(), target);
+            restricted = true;
+        }
+
+        if (methodAuth != null && listsRoles(methodAuth.roles())) {
+            roles &= RoleRegistry.intern(methodAuth.roles(), target);
+            restricted = true;
+        }
+
+        if (restricted && roles == 0) 
+        { log.warn("No role is allowed by both @AuthController and @Auth on " + target + ", it cannot be reached"); }
+
+        return new AuthPolicy(true, restricted, restricted ? roles : 0);
+    }
+
+    // roles = { Void.class }, the default, only requires authentication
+    private static boolean listsRoles(Class<?>[] roles) 
+    { return roles.length > 0 && !roles[0].equals(Void.class); }
+
+    // session is null on stateless routes, which are always public; at most the two attributes
+    // set by Session.login are read, the profile only when the policy lists roles
+    public boolean allows(Session session) {
+        if (!authenticated) 
+        { return true; }
+
+        if (!Boolean.TRUE.equals(session.get("authenticated"))) 
+        { return false; }
+
+        if (!restricted) 
+        { return true; }
+
+        Object profile = session.get("profile");
+        return profile instanceof Class && (RoleRegistry.maskOf((Class<?>) profile) & roles) != 0;
+    }
+
+    public boolean isPublic() 
+    { return !authenticated; }
+}
@@ -0,0 +1,46 @@
+package auth;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import exception.BuildException;
+
+// role classes of @Auth and @AuthController interned to bit positions while the routes are
+// scanned, so a set of roles is a long and a role check a single AND
+public final class RoleRegistry {
+
+    public static final int MAX_ROLES = 64;
+
+    private static final Map<Class<?>, Integer> ids = new ConcurrentHashMap<>();
+
+    private RoleRegistry() 
+    { }
+
+    // mask of the given roles, registering the new ones
+    static synchronized long intern(Class<?>[] roles, String target) 
+        throws BuildException 
+    {
+        long mask = 0;
+        for (Class<?> role : roles) {
+            Integer id = ids.get(role);
+            if (id == null) {
+                if (ids.size() == MAX_ROLES) 
+                { throw new BuildException("At most " + MAX_ROLES + " roles can be used with @Auth and @AuthController, " + target + " adds " + role.getName()); }
+
+                id = ids.size();
+                ids.put(role, id);
+            }
+            mask |= 1L << id;
+        }
+        return mask;
+    }
+
+    // 0 for a role no route requires
+    static long maskOf(Class<?> role) {
+        Integer id = role != null ? ids.get(role) : null;
+        return id != null ? 1L << id : 0;
+    }
+
+    public static int size() 
+    { return ids.size(); }
+}
@@ -0,0 +1,97 @@
+package binding;
+
+import java.io.IOException;
+
+import javax.servlet.http.HttpServletRequest;
+
+import engine.ValidationResult;
+import exception.UploadLimitException;
+import metrics.Phase;
+import metrics.PhaseTimer;
+import routing.PathVariables;
+import session.Session;
+import upload.MultipartForm;
+import upload.MultipartParser;
+import upload.UploadLimits;
+
+// per-request state shared by the binders of one handler invocation
+public class BindingContext {
+
+    private final HttpServletRequest request;
+    private final Session session;
+    private final PathVariables pathVariables;
+    private final UploadLimits uploadLimits;
+    private ValidationResult validationResult;
+    private MultipartForm multipartForm;
+    private final PhaseTimer timer;
+
+    public BindingContext(HttpServletRequest request, Session session, PathVariables pathVariables) 
+    { this(request, session, pathVariables, null); }
+
+    // uploadLimits is null when the handler takes no upload
+    public BindingContext(HttpServletRequest request, Session session, PathVariables pathVariables, UploadLimits uploadLimits) 
+    { this(request, session, pathVariables, uploadLimits, null); }
+
+    // timer is null when metrics are disabled
+    public BindingContext(HttpServletRequest request, Session session, PathVariables pathVariables, UploadLimits uploadLimits, PhaseTimer timer) {
+        this.request = request;
+        this.session = session;
+        this.pathVariables = pathVariables;
+        this.uploadLimits = uploadLimits;
+        this.timer = timer;
+    }
+
+    // ends the current phase of the request's timer, binders alternate binding and validation
+    public void markPhase(Phase phase) {
+        if (timer != null) 
+        { timer.mark(phase); }
+    }
+
+    // form fields of a multipart body parsed by the framework, request parameters otherwise
+    public String getParameter(String name) 
+        throws IOException, UploadLimitException 
+    {
+        MultipartForm form = getMultipartForm();
+        String value = form != null ? form.getParameter(name) : null;
+
+        return value != null ? value : request.getParameter(name);
+    }
+
+    // parsed on first use, null unless the handler takes uploads and the body is multipart
+    public MultipartForm getMultipartForm() 
+        throws IOException, UploadLimitException 
+    {
+        if (multipartForm == null && uploadLimits != null && MultipartParser.isMultipart(request)) 
+        { multipartForm = MultipartParser.parse(request, uploadLimits); }
+
+        return multipartForm;
+    }
+
+    // deletes the uploads the handler did not save
+    public void close() {
+        if (multipartForm != null) 
+        { multipartForm.cleanup(); }
+    }
+
+    public void addValidationErrors(ValidationResult result) {
+        if (validationResult == null) 
+        { validationResult = new ValidationResult(); }
+
+        validationResult.addErrors(result.getErrors());
+    }
+
+    public boolean hasValidationErrors() 
+    { return validationResult != null; }
+
+    public HttpServletRequest getRequest() 
+    { return request; }
+
+    public Session getSession() 
+    { return session; }
+
+    public PathVariables getPathVariables() 
+    { return pathVariables; }
+
+    public ValidationResult getValidationResult() 
+    { return validationResult; }
+}
@@ -0,0 +1,62 @@
+package binding;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.Part;
+
+import exception.UploadLimitException;
+import upload.FileUpload;
+import upload.MultipartForm;
+import upload.MultipartParser;
+
+public class FileUploadBinder implements ParameterBinder {
+
+    private final String name;
+    private final boolean multiple;
+
+    public FileUploadBinder(String name, boolean multiple) {
+        this.name = name;
+        this.multiple = multiple;
+    }
+
+    @Override
+    public Object bind(BindingContext context) 
+        throws Exception 
+    {
+        HttpServletRequest request = context.getRequest();
+
+        try {
+            // streamed by the framework, the container never buffers the body
+            MultipartForm form = context.getMultipartForm();
+            if (form != null) 
+            { return multiple ? new ArrayList<>(form.getFiles()) : form.getFile(name); }
+
+            // not a multipart request, there is nothing to upload
+            if (!MultipartParser.isMultipart(request)) 
+            { return multiple ? new ArrayList<FileUpload>() : null; }
+
+            if (multiple) {
+                List<FileUpload> files = new ArrayList<>();
+                for (Part part : request.getParts()) {
+                    if (part.getContentType() != null) 
+                    { files.add(new FileUpload(part)); }
+                }
+                return files;
+            }
+
+            Part part = request.getPart(name);
+            if (part != null && part.getContentType() != null) 
+            { return new FileUpload(part); }
+
+            return null;
+        } 
+        
+        catch (UploadLimitException | IllegalArgumentException e) 
+        { throw e; }
+
+        catch (Exception e) 
+        { throw new Exception("Failed to process file upload: " + e.getMessage()); }
+    }
+}
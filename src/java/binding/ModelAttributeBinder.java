@@ -0,0 +1,45 @@
+package binding;
+
+import engine.ValidationPlan;
+import engine.ValidationResult;
+import invoker.Instantiator;
+import metrics.Phase;
+
+public class ModelAttributeBinder implements ParameterBinder {
+
+    private final String name;
+    private final Instantiator instantiator;
+    private final ModelBinder modelBinder;
+    private final ValidationPlan validationPlan;
+
+    // validationPlan is null when the parameter is not validated
+    public ModelAttributeBinder(String name, Instantiator instantiator, ModelBinder modelBinder, ValidationPlan validationPlan) {
+        this.name = name;
+        this.instantiator = instantiator;
+        this.modelBinder = modelBinder;
+        this.validationPlan = validationPlan;
+    }
+
+    @Override
+    public Object bind(BindingContext context) 
+        throws Exception 
+    {
+        Object model = instantiator.newInstance();
+        modelBinder.bind(model, context);
+
+        // perform validation if @Valid is present
+        if (validationPlan != null) {
+            context.markPhase(Phase.BINDING);
+            ValidationResult validationResult = validationPlan.validate(model);
+            context.markPhase(Phase.VALIDATION);
+
+            if (!validationResult.isValid()) 
+            { context.addValidationErrors(validationResult); }
+        }
+
+        return model;
+    }
+
+    public String getName() 
+    { return name; }
+}
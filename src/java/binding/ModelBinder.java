@@ -0,0 +1,209 @@
+package binding;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import convert.ConverterRegistry;
+import convert.TypeConverter;
+import exception.BuildException;
+import invoker.FieldAccessor;
+import invoker.Instantiator;
+import invoker.Invokers;
+import mg.jwe.orm.annotations.Id;
+import mg.jwe.orm.base.BaseModel;
+
+// binding plan of a model class: field accessors, converters, binding kind and full parameter
+// names are resolved once, nested plans are built on first use and kept on their parent field
+public final class ModelBinder {
+
+    private static final Map<Class<?>, ModelBinder> plans = new ConcurrentHashMap<>();
+
+    private final boolean root;
+    private final FieldBinding[] fields;
+
+    private ModelBinder(Class<?> modelClass, String prefix) 
+        throws BuildException 
+    {
+        this.root = prefix == null;
+
+        List<FieldBinding> bindings = new ArrayList<>();
+        for (Field field : modelClass.getDeclaredFields()) {
+            if (Modifier.isStatic(field.getModifiers()) || field.isSynthetic()) 
+            { continue; }
+
+            // the parameter name in the form would be something like: 'plane', 'plane.id', 'plane.name'
+            String paramName = root ? field.getName() : prefix + "." + field.getName();
+            bindings.add(new FieldBinding(FieldAccessor.of(field), paramName));
+        }
+
+        this.fields = bindings.toArray(new FieldBinding[0]);
+    }
+
+    public static ModelBinder forClass(Class<?> modelClass) 
+        throws BuildException 
+    {
+        ModelBinder plan = plans.get(modelClass);
+        if (plan == null) {
+            plans.putIfAbsent(modelClass, new ModelBinder(modelClass, null));
+            plan = plans.get(modelClass);
+        }
+        return plan;
+    }
+
+    public void bind(Object model, BindingContext context) 
+        throws Exception 
+    {
+        for (FieldBinding field : fields) {
+            String paramValue = context.getParameter(field.paramName);
+
+            if (root) 
+            { field.bindRoot(model, paramValue, context); }
+            
+            else 
+            { field.bindNested(model, paramValue, context); }
+        }
+    }
+
+    static boolean isNestable(Class<?> type) {
+        return !type.isArray() && !type.isEnum() && !type.isInterface() && 
+               !Modifier.isAbstract(type.getModifiers()) &&
+               !type.getName().startsWith("java.") && 
+               !Collection.class.isAssignableFrom(type);
+    }
+
+    static boolean isBlank(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) > ' ') 
+            { return false; }
+        }
+        return true;
+    }
+
+    private static Field findIdField(Class<?> clazz) {
+        for (Class<?> c = clazz; c != null && !c.equals(Object.class); c = c.getSuperclass()) {
+            for (Field field : c.getDeclaredFields()) {
+                if (field.isAnnotationPresent(Id.class)) 
+                { return field; }
+            }
+        }
+        return null;
+    }
+
+    private static final class FieldBinding {
+
+        private final FieldAccessor accessor;
+        private final String paramName;
+        private final Class<?> type;
+        private final TypeConverter converter;
+
+        // select options posting the id of a BaseModel
+        private final Instantiator foreignKeyInstantiator;
+        private final FieldAccessor idAccessor;
+        private final TypeConverter idConverter;
+
+        // nested objects posted with dotted names
+        private final Instantiator nestedInstantiator;
+        private volatile ModelBinder nestedPlan;
+
+        FieldBinding(FieldAccessor accessor, String paramName) 
+            throws BuildException 
+        {
+            this.accessor = accessor;
+            this.paramName = paramName;
+            this.type = accessor.getType();
+            this.converter = ConverterRegistry.getInstance().resolve(type);
+
+            boolean nestable = converter == null && isNestable(type);
+            Field idField = nestable && BaseModel.class.isAssignableFrom(type) ? findIdField(type) : null;
+            TypeConverter idConverter = idField != null ? ConverterRegistry.getInstance().resolve(idField.getType()) : null;
+            Instantiator instantiator = nestable ? tryInstantiator(type) : null;
+
+            this.idAccessor = idConverter != null && instantiator != null ? FieldAccessor.of(idField) : null;
+            this.idConverter = idAccessor != null ? idConverter : null;
+            this.foreignKeyInstantiator = idAccessor != null ? instantiator : null;
+            this.nestedInstantiator = instantiator;
+        }
+
+        private static Instantiator tryInstantiator(Class<?> type) {
+            try 
+            { return Invokers.forClass(type); } 
+            
+            catch (BuildException e) 
+            { return null; }
+        }
+
+        void bindRoot(Object model, String paramValue, BindingContext context) 
+            throws Exception 
+        {
+            if (converter != null) {
+                if (paramValue != null) 
+                { accessor.set(model, converter.convert(paramValue)); }
+                return;
+            }
+
+            // first check if there's a direct parameter with the field name (select options case)
+            if (paramValue != null && !isBlank(paramValue)) {
+                if (idAccessor != null) 
+                { bindForeignKey(model, paramValue); }
+                return;
+            }
+
+            // otherwise look for nested form fields with dot notation
+            if (nestedInstantiator != null) 
+            { nestedPlan().bind(nestedInstance(model), context); }
+        }
+
+        void bindNested(Object model, String paramValue, BindingContext context) 
+            throws Exception 
+        {
+            if (paramValue == null) 
+            { return; }
+
+            if (converter != null) 
+            { accessor.set(model, converter.convert(paramValue)); }
+            
+            else if (nestedInstantiator != null) 
+            { nestedPlan().bind(nestedInstance(model), context); }
+        }
+
+        private void bindForeignKey(Object model, String paramValue) 
+            throws Exception 
+        {
+            try {
+                Object foreignKeyInstance = foreignKeyInstantiator.newInstance();
+                idAccessor.set(foreignKeyInstance, idConverter.convert(paramValue));
+                accessor.set(model, foreignKeyInstance);
+            } 
+            
+            catch (Exception e) 
+            { throw new Exception("Failed to set foreign key field: " + accessor.getName() + " - " + e.getMessage()); }
+        }
+
+        private Object nestedInstance(Object model) 
+            throws Exception 
+        {
+            Object nested = accessor.get(model);
+            if (nested == null) {
+                nested = nestedInstantiator.newInstance();
+                accessor.set(model, nested);
+            }
+            return nested;
+        }
+
+        private ModelBinder nestedPlan() 
+            throws BuildException 
+        {
+            ModelBinder plan = nestedPlan;
+            if (plan == null) {
+                plan = new ModelBinder(type, paramName);
+                nestedPlan = plan;
+            }
+            return plan;
+        }
+    }
+}
@@ -0,0 +1,5 @@
+package binding;
+
+public interface ParameterBinder {
+    Object bind(BindingContext context) throws Exception;
+}
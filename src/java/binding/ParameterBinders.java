@@ -0,0 +1,83 @@
+package binding;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Parameter;
+import java.util.List;
+
+import annotation.AnnotationFileUpload;
+import annotation.AnnotationModelAttribute;
+import annotation.AnnotationPathVariable;
+import annotation.AnnotationRequestParam;
+import convert.ConverterRegistry;
+import convert.TypeConverter;
+import engine.ValidationEngine;
+import engine.ValidationPlan;
+import exception.BuildException;
+import invoker.Invokers;
+import session.Session;
+import validation.Valid;
+
+// builds the binder of every parameter slot once, at scan time
+public final class ParameterBinders {
+
+    private ParameterBinders() 
+    { }
+
+    public static ParameterBinder[] forMethod(Method method, List<String> pathVariableNames) 
+        throws BuildException 
+    {
+        Parameter[] parameters = method.getParameters();
+        ParameterBinder[] binders = new ParameterBinder[parameters.length];
+
+        for (int i = 0; i < parameters.length; i++) 
+        { binders[i] = forParameter(method, parameters[i], pathVariableNames); }
+
+        return binders;
+    }
+
+    private static ParameterBinder forParameter(Method method, Parameter parameter, List<String> pathVariableNames) 
+        throws BuildException 
+    {
+        Class<?> type = parameter.getType();
+
+        if (type.equals(Session.class)) 
+        { return new SessionBinder(); }
+
+        AnnotationPathVariable pathVariable = parameter.getAnnotation(AnnotationPathVariable.class);
+        if (pathVariable != null) {
+            if (!pathVariableNames.contains(pathVariable.value())) 
+            { throw new BuildException(describe(method, parameter) + " binds {" + pathVariable.value() + "} which is not declared in the route"); }
+
+            TypeConverter converter = ConverterRegistry.getInstance().require(type, describe(method, parameter));
+            return new PathVariableBinder(pathVariable.value(), converter);
+        }
+
+        AnnotationRequestParam requestParam = parameter.getAnnotation(AnnotationRequestParam.class);
+        if (requestParam != null) {
+            TypeConverter converter = ConverterRegistry.getInstance().require(type, describe(method, parameter));
+            return new RequestParamBinder(requestParam.name(), converter);
+        }
+
+        AnnotationModelAttribute modelAttribute = parameter.getAnnotation(AnnotationModelAttribute.class);
+        if (modelAttribute != null) {
+            boolean validate = parameter.isAnnotationPresent(Valid.class) || type.isAnnotationPresent(Valid.class);
+            ValidationPlan validationPlan = validate ? ValidationEngine.planFor(type) : null;
+
+            // a plan without constraints never reports errors, skip it entirely
+            if (validationPlan != null && validationPlan.isEmpty()) 
+            { validationPlan = null; }
+
+            return new ModelAttributeBinder(modelAttribute.value(), Invokers.forClass(type), ModelBinder.forClass(type), validationPlan);
+        }
+
+        AnnotationFileUpload fileUpload = parameter.getAnnotation(AnnotationFileUpload.class);
+        if (fileUpload != null) 
+        { return new FileUploadBinder(fileUpload.value(), fileUpload.multiple()); }
+
+        throw new BuildException(
+            describe(method, parameter) + " is not annotated properly. Expected Session, @AnnotationPathVariable, @AnnotationRequestParam, @AnnotationModelAttribute or @AnnotationFileUpload");
+    }
+
+    private static String describe(Method method, Parameter parameter) 
+    { return "parameter " + parameter.getName() + " of " + method.getDeclaringClass().getName() + "." + method.getName(); }
+}
@@ -0,0 +1,19 @@
+package binding;
+
+import convert.TypeConverter;
+
+public class PathVariableBinder implements ParameterBinder {
+
+    private final String name;
+    private final TypeConverter converter;
+
+    public PathVariableBinder(String name, TypeConverter converter) {
+        this.name = name;
+        this.converter = converter;
+    }
+
+    @Override
+    public Object bind(BindingContext context) 
+        throws Exception 
+    { return converter.convert(context.getPathVariables().get(name)); }
+}
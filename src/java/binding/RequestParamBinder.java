@@ -0,0 +1,19 @@
+package binding;
+
+import convert.TypeConverter;
+
+public class RequestParamBinder implements ParameterBinder {
+
+    private final String name;
+    private final TypeConverter converter;
+
+    public RequestParamBinder(String name, TypeConverter converter) {
+        this.name = name;
+        this.converter = converter;
+    }
+
+    @Override
+    public Object bind(BindingContext context) 
+        throws Exception 
+    { return converter.convert(context.getParameter(name)); }
+}
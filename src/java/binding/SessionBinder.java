@@ -0,0 +1,9 @@
+package binding;
+
+public class SessionBinder implements ParameterBinder {
+
+    // the request's Session, its HttpSession is only created by a write
+    @Override
+    public Object bind(BindingContext context) 
+    { return context.getSession(); }
+}
@@ -0,0 +1,75 @@
+package cache;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.TreeMap;
+
+import javax.servlet.http.HttpServletRequest;
+
+import annotation.AnnotationCacheable;
+import exception.BuildException;
+import response.FileExportResult;
+import routing.PathVariables;
+import session.Session;
+
+// how one cacheable GET handler builds its keys, resolved at scan time
+public final class CachePolicy {
+
+    private final String route;
+    private final long ttlSeconds;
+    private final boolean perProfile;
+
+    private CachePolicy(String route, long ttlSeconds, boolean perProfile) {
+        this.route = route;
+        this.ttlSeconds = ttlSeconds;
+        this.perProfile = perProfile;
+    }
+
+    // null when the handler is not cached, only GET handlers are; resultClass is the class
+    // the handler produces, unwrapped from a CompletionStage
+    public static CachePolicy forHandler(String verb, String url, Method method, Class<?> resultClass) 
+        throws BuildException 
+    {
+        AnnotationCacheable cacheable = method.getAnnotation(AnnotationCacheable.class);
+        if (cacheable == null || !verb.equals("GET")) 
+        { return null; }
+
+        String target = method.getDeclaringClass().getName() + "." + method.getName();
+
+        if (cacheable.ttlSeconds() <= 0) 
+        { throw new BuildException("The cache ttl of " + target + " must be positive"); }
+
+        // a file export holds a stream that can only be sent once
+        if (FileExportResult.class.isAssignableFrom(resultClass)) 
+        { throw new BuildException(target + " returns a FileExportResult, which cannot be cached"); }
+
+        return new CachePolicy(verb + " " + url, cacheable.ttlSeconds(), cacheable.perProfile());
+    }
+
+    // route, path variables in declaration order, query parameters sorted by name and the profile
+    public String key(HttpServletRequest request, PathVariables pathVariables, Session session) {
+        StringBuilder key = new StringBuilder(64).append(route);
+
+        for (int i = 0; i < pathVariables.size(); i++) 
+        { key.append('\u0000').append(pathVariables.getValue(i)); }
+
+        Map<String, String[]> parameters = request.getParameterMap();
+        if (!parameters.isEmpty()) {
+            for (Map.Entry<String, String[]> parameter : new TreeMap<>(parameters).entrySet()) {
+                key.append('\u0001').append(parameter.getKey());
+                for (String value : parameter.getValue()) 
+                { key.append('\u0002').append(value); }
+            }
+        }
+
+        if (perProfile) {
+            Object profile = session.get("profile");
+            key.append('\u0003').append(profile instanceof Class ? ((Class<?>) profile).getName() : String.valueOf(profile));
+        }
+
+        return key.toString();
+    }
+
+    public long getTtlSeconds() 
+    { return ttlSeconds; }
+}
@@ -0,0 +1,47 @@
+package cache;
+
+import java.util.concurrent.atomic.LongAdder;
+
+public final class CacheStats {
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+
+    void recordHit() 
+    { hits.increment(); }
+
+    void recordMiss() 
+    { misses.increment(); }
+
+    void recordEviction() 
+    { evictions.increment(); }
+
+    void recordExpiration() 
+    { expirations.increment(); }
+
+    public long getHits() 
+    { return hits.sum(); }
+
+    public long getMisses() 
+    { return misses.sum(); }
+
+    public long getEvictions() 
+    { return evictions.sum(); }
+
+    public long getExpirations() 
+    { return expirations.sum(); }
+
+    public double getHitRate() {
+        long hitCount = getHits();
+        long requests = hitCount + getMisses();
+        return requests == 0 ? 1.0 : (double) hitCount / requests;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("hits=%d, misses=%d, hitRate=%.3f, evictions=%d, expirations=%d", 
+            getHits(), getMisses(), getHitRate(), getEvictions(), getExpirations());
+    }
+}
@@ -0,0 +1,53 @@
+package cache;
+
+import java.util.concurrent.TimeUnit;
+
+// results of @AnnotationCacheable handlers, shared by the whole application
+public final class ResultCache {
+
+    public static final int DEFAULT_MAXIMUM_SIZE = 10000;
+
+    private static volatile ResultCache instance;
+
+    private final TinyLfuCache<String, Object> cache;
+
+    private ResultCache(int maximumSize) {
+        this.cache = new TinyLfuCache<>(maximumSize);
+    }
+
+    public static ResultCache getInstance() {
+        ResultCache cache = instance;
+        if (cache == null) {
+            synchronized (ResultCache.class) {
+                cache = instance;
+                if (cache == null) {
+                    cache = new ResultCache(DEFAULT_MAXIMUM_SIZE);
+                    instance = cache;
+                }
+            }
+        }
+        return cache;
+    }
+
+    // replaces the cache, called at startup from the result_cache_size init parameter
+    public static synchronized void configure(int maximumSize) 
+    { instance = new ResultCache(maximumSize); }
+
+    public Object get(String key) 
+    { return cache.get(key, System.nanoTime()); }
+
+    public void put(String key, Object result, long ttlSeconds) 
+    { cache.put(key, result, System.nanoTime() + TimeUnit.SECONDS.toNanos(ttlSeconds)); }
+
+    public void invalidateAll() 
+    { cache.invalidateAll(); }
+
+    public int size() 
+    { return cache.size(); }
+
+    public int getMaximumSize() 
+    { return cache.getMaximumSize(); }
+
+    public CacheStats getStats() 
+    { return cache.getStats(); }
+}
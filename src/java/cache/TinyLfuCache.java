@@ -0,0 +1,206 @@
+package cache;
+
+import java.util.HashMap;
+import java.util.Map;
+
+// bounded cache with W-TinyLFU eviction: new entries land in a small LRU window, entries
+// leaving the window must be estimated more popular than the main space's LRU victim to
+// be admitted, and the main space is a segmented LRU split into probation and protected;
+// entries expire individually, a monitor guards the structure
+public final class TinyLfuCache<K, V> {
+
+    private static final int WINDOW = 0;
+    private static final int PROBATION = 1;
+    private static final int PROTECTED = 2;
+
+    private final int maximumSize;
+    private final int windowMaximum;
+    private final int protectedMaximum;
+
+    private final Map<K, Node<K, V>> nodes;
+    private final FrequencySketch sketch;
+    private final CacheStats stats = new CacheStats();
+
+    private final Node<K, V> window = Node.sentinel();
+    private final Node<K, V> probation = Node.sentinel();
+    private final Node<K, V> protectedSegment = Node.sentinel();
+    private int windowSize;
+    private int protectedSize;
+
+    public TinyLfuCache(int maximumSize) {
+        if (maximumSize < 1)
+        { throw new IllegalArgumentException("The maximum size must be positive"); }
+
+        this.maximumSize = maximumSize;
+        this.windowMaximum = Math.max(1, maximumSize / 100);
+        this.protectedMaximum = (int) ((maximumSize - windowMaximum) * 0.8);
+        this.nodes = new HashMap<>(maximumSize * 4 / 3 + 1);
+        this.sketch = new FrequencySketch(maximumSize);
+    }
+
+    // now is System.nanoTime()
+    public synchronized V get(K key, long now) {
+        sketch.increment(key);
+        Node<K, V> node = nodes.get(key);
+
+        if (node == null) {
+            stats.recordMiss();
+            return null;
+        }
+
+        if (node.expiresAt - now <= 0) {
+            remove(node);
+            stats.recordExpiration();
+            stats.recordMiss();
+            return null;
+        }
+
+        onAccess(node);
+        stats.recordHit();
+        return node.value;
+    }
+
+    public synchronized void put(K key, V value, long expiresAt) {
+        Node<K, V> node = nodes.get(key);
+        if (node != null) {
+            node.value = value;
+            node.expiresAt = expiresAt;
+            onAccess(node);
+            return;
+        }
+
+        node = new Node<>(key, value, expiresAt);
+        nodes.put(key, node);
+        node.segment = WINDOW;
+        node.linkLast(window);
+        windowSize++;
+
+        // the window's oldest entry becomes a candidate for the main space
+        if (windowSize > windowMaximum) {
+            Node<K, V> candidate = window.next;
+            candidate.unlink();
+            windowSize--;
+            candidate.segment = PROBATION;
+            candidate.linkLast(probation);
+        }
+
+        if (nodes.size() > maximumSize)
+        { evict(); }
+    }
+
+    public synchronized void invalidateAll() {
+        nodes.clear();
+        window.next = window.previous = window;
+        probation.next = probation.previous = probation;
+        protectedSegment.next = protectedSegment.previous = protectedSegment;
+        windowSize = 0;
+        protectedSize = 0;
+    }
+
+    public synchronized int size()
+    { return nodes.size(); }
+
+    public int getMaximumSize()
+    { return maximumSize; }
+
+    public CacheStats getStats()
+    { return stats; }
+
+    private void onAccess(Node<K, V> node) {
+        switch (node.segment) {
+            case WINDOW:
+                node.moveToLast(window);
+                break;
+
+            case PROBATION:
+                // a second hit earns the protected segment, its oldest entry goes back on probation
+                node.unlink();
+                node.segment = PROTECTED;
+                node.linkLast(protectedSegment);
+                protectedSize++;
+
+                if (protectedSize > protectedMaximum) {
+                    Node<K, V> demoted = protectedSegment.next;
+                    demoted.unlink();
+                    protectedSize--;
+                    demoted.segment = PROBATION;
+                    demoted.linkLast(probation);
+                }
+                break;
+
+            default:
+                node.moveToLast(protectedSegment);
+        }
+    }
+
+    // TinyLFU admission: the newest probation entry came from the window, the oldest is the victim
+    private void evict() {
+        Node<K, V> victim = probation.next;
+        Node<K, V> candidate = probation.previous;
+
+        if (victim == probation) {
+            victim = protectedSegment.next != protectedSegment ? protectedSegment.next : window.next;
+            candidate = victim;
+        }
+
+        Node<K, V> evicted = candidate != victim && sketch.frequency(candidate.key) > sketch.frequency(victim.key)
+            ? victim
+            : candidate;
+
+        remove(evicted);
+        stats.recordEviction();
+    }
+
+    private void remove(Node<K, V> node) {
+        nodes.remove(node.key);
+        node.unlink();
+
+        if (node.segment == WINDOW)
+        { windowSize--; }
+
+        else if (node.segment == PROTECTED)
+        { protectedSize--; }
+    }
+
+    private static final class Node<K, V> {
+
+        final K key;
+        V value;
+        long expiresAt;
+        int segment;
+        Node<K, V> previous;
+        Node<K, V> next;
+
+        Node(K key, V value, long expiresAt) {
+            this.key = key;
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+
+        static <K, V> Node<K, V> sentinel() {
+            Node<K, V> sentinel = new Node<>(null, null, 0);
+            sentinel.previous = sentinel;
+            sentinel.next = sentinel;
+            return sentinel;
+        }
+
+        void linkLast(Node<K, V> list) {
+            previous = list.previous;
+            next = list;
+            list.previous.next = this;
+            list.previous = this;
+        }
+
+        void unlink() {
+            previous.next = next;
+            next.previous = previous;
+            previous = null;
+            next = null;
+        }
+
+        void moveToLast(Node<K, V> list) {
+            unlink();
+            linkLast(list);
+        }
+    }
+}
@@ -0,0 +1,512 @@
+package compress;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.Locale;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+
+// compresses the body on the fly when its content type is allowed and it reaches the minimum
+// size; the first bytes are held back until then so small bodies go out untouched with their
+// length, partial, not-modified and already-encoded responses are never compressed, nor are
+// bodies written through a servlet 3.1 WriteListener
+public final class CompressingResponse extends HttpServletResponseWrapper {
+
+    private static final int BUFFER_SIZE = 8192;
+
+    // gzip member header: magic, deflate, no flags, no mtime, no extra flags, unknown OS
+    private static final byte[] GZIP_HEADER = { 0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, (byte) 0xff };
+
+    private final Compression compression;
+    private final String encoding;
+
+    private long contentLength = -1;
+    private boolean excluded;
+    private CompressingStream stream;
+    private PrintWriter writer;
+
+    CompressingResponse(HttpServletResponse response, Compression compression, String encoding) {
+        super(response);
+        this.compression = compression;
+        this.encoding = encoding;
+    }
+
+    @Override
+    public ServletOutputStream getOutputStream()
+        throws IOException
+    {
+        if (writer != null)
+        { throw new IllegalStateException("getWriter() has already been called for this response"); }
+
+        if (stream == null)
+        { stream = new CompressingStream(); }
+
+        return stream;
+    }
+
+    @Override
+    public PrintWriter getWriter()
+        throws IOException
+    {
+        if (writer == null) {
+            if (stream != null)
+            { throw new IllegalStateException("getOutputStream() has already been called for this response"); }
+
+            stream = new CompressingStream();
+            writer = new PrintWriter(new DeferredWriter());
+        }
+        return writer;
+    }
+
+    // the length is forwarded only if the body goes out uncompressed
+    @Override
+    public void setContentLength(int length)
+    { setContentLengthLong(length); }
+
+    @Override
+    public void setContentLengthLong(long length) {
+        if (stream != null && (stream.state == CompressingStream.PASS_THROUGH || stream.state == CompressingStream.DELEGATING))
+        { super.setContentLengthLong(length); }
+
+        else
+        { contentLength = length; }
+    }
+
+    @Override
+    public void setHeader(String name, String value) {
+        if (intercept(name, value))
+        { super.setHeader(name, value); }
+    }
+
+    @Override
+    public void addHeader(String name, String value) {
+        if (intercept(name, value))
+        { super.addHeader(name, value); }
+    }
+
+    @Override
+    public void setStatus(int status) {
+        excludeStatus(status);
+        super.setStatus(status);
+    }
+
+    @Override
+    public void sendError(int status, String message)
+        throws IOException
+    {
+        excluded = true;
+        super.sendError(status, message);
+    }
+
+    @Override
+    public void sendError(int status)
+        throws IOException
+    {
+        excluded = true;
+        super.sendError(status);
+    }
+
+    @Override
+    public void sendRedirect(String location)
+        throws IOException
+    {
+        excluded = true;
+        super.sendRedirect(location);
+    }
+
+    // a forward or an error page discards what was written, the stage starts over
+    @Override
+    public void resetBuffer() {
+        super.resetBuffer();
+        if (stream != null)
+        { stream.discard(); }
+    }
+
+    @Override
+    public void reset() {
+        super.reset();
+        contentLength = -1;
+        excluded = false;
+        if (stream != null)
+        { stream.discard(); }
+    }
+
+    @Override
+    public void flushBuffer()
+        throws IOException
+    {
+        if (writer != null)
+        { writer.flush(); }
+
+        if (stream != null)
+        { stream.flushCompressed(); }
+
+        super.flushBuffer();
+    }
+
+    // writes what is still held back and the end of the compressed stream, called once the
+    // handler's response is complete; calling it again does nothing
+    public void finish()
+        throws IOException
+    {
+        if (writer != null)
+        { writer.flush(); }
+
+        if (stream != null)
+        { stream.close(); }
+
+        else if (contentLength >= 0)
+        { super.setContentLengthLong(contentLength); }
+    }
+
+    // true when the body written from now would be compressed if large enough
+    public boolean isCompressible() 
+    { return !excluded && compression.isCompressible(getContentType()); }
+
+    // false when the header is held by the wrapper instead of being set
+    private boolean intercept(String name, String value) {
+        if (name.equalsIgnoreCase("Content-Length")) {
+            try
+            { setContentLengthLong(Long.parseLong(value.trim())); }
+
+            catch (NumberFormatException e)
+            { return true; }
+
+            return false;
+        }
+
+        if (name.equalsIgnoreCase("Content-Encoding") || name.equalsIgnoreCase("Content-Range"))
+        { excluded = true; }
+
+        return true;
+    }
+
+    private void excludeStatus(int status) {
+        if (status == SC_PARTIAL_CONTENT || status == SC_NOT_MODIFIED || status == SC_NO_CONTENT || status < 200)
+        { excluded = true; }
+    }
+
+    // the encoder is created on the first write: the super writer is never taken, so the wrapped
+    // response does not lock its charset, and a view forwarded to after getWriter() still sets
+    // the one the body must be written in
+    private final class DeferredWriter extends Writer {
+
+        private Writer encoder;
+
+        private Writer encoder()
+            throws IOException
+        {
+            if (encoder == null)
+            { encoder = new OutputStreamWriter(stream, getCharacterEncoding()); }
+
+            return encoder;
+        }
+
+        @Override
+        public void write(char[] chars, int offset, int length)
+            throws IOException
+        { encoder().write(chars, offset, length); }
+
+        @Override
+        public void write(String text, int offset, int length)
+            throws IOException
+        { encoder().write(text, offset, length); }
+
+        @Override
+        public void flush()
+            throws IOException
+        {
+            if (encoder != null)
+            { encoder.flush(); }
+        }
+
+        @Override
+        public void close()
+            throws IOException
+        {
+            if (encoder != null)
+            { encoder.close(); }
+
+            else
+            { stream.close(); }
+        }
+    }
+
+    private final class CompressingStream extends ServletOutputStream {
+
+        static final int UNDECIDED = 0;
+        static final int BUFFERING = 1;
+        static final int COMPRESSING = 2;
+        static final int PASS_THROUGH = 3;
+        static final int FINISHED = 4;
+
+        // a write listener drives the wrapped stream, which outlives finish()
+        static final int DELEGATING = 5;
+
+        int state = UNDECIDED;
+
+        private byte[] pending;
+        private int pendingLength;
+
+        private ServletOutputStream out;
+        private DeflaterPool pool;
+        private Deflater deflater;
+        private CRC32 crc;
+        private byte[] output;
+
+        @Override
+        public void write(int b)
+            throws IOException
+        { write(new byte[] { (byte) b }, 0, 1); }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length)
+            throws IOException
+        {
+            if (length == 0)
+            { return; }
+
+            if (state == UNDECIDED)
+            { decide(); }
+
+            switch (state) {
+                case BUFFERING:
+                    if (pendingLength + length < compression.getMinSize()) {
+                        System.arraycopy(bytes, offset, pending, pendingLength, length);
+                        pendingLength += length;
+                        return;
+                    }
+
+                    startCompression();
+                    deflate(pending, 0, pendingLength);
+                    pending = null;
+                    deflate(bytes, offset, length);
+                    return;
+
+                case COMPRESSING:
+                    deflate(bytes, offset, length);
+                    return;
+
+                case PASS_THROUGH:
+                case DELEGATING:
+                    out.write(bytes, offset, length);
+                    return;
+
+                default:
+                    throw new IOException("The response has already been completed");
+            }
+        }
+
+        // the headers are final when the body starts, the content type and length decide
+        private void decide()
+            throws IOException
+        {
+            if (excluded || !compression.isCompressible(getContentType())) {
+                passThrough();
+                return;
+            }
+
+            // caches must keep one copy per encoding even when this one stays identity
+            String vary = getHeader("Vary");
+            if (vary == null)
+            { CompressingResponse.super.setHeader("Vary", "Accept-Encoding"); }
+
+            else if (!vary.toLowerCase(Locale.ROOT).contains("accept-encoding"))
+            { CompressingResponse.super.setHeader("Vary", vary + ", Accept-Encoding"); }
+
+            if (contentLength >= 0 && contentLength < compression.getMinSize())
+            { passThrough(); }
+
+            else if (contentLength >= 0)
+            { startCompression(); }
+
+            else {
+                pending = new byte[compression.getMinSize()];
+                state = BUFFERING;
+            }
+        }
+
+        private void passThrough()
+            throws IOException
+        {
+            if (contentLength >= 0)
+            { CompressingResponse.super.setContentLengthLong(contentLength); }
+
+            out = CompressingResponse.super.getOutputStream();
+            state = PASS_THROUGH;
+        }
+
+        private void startCompression()
+            throws IOException
+        {
+            // the compressed bytes differ, a strong tag would wrongly satisfy byte ranges; a
+            // weak one still validates conditional GETs against the identity tag
+            String etag = getHeader("ETag");
+            if (etag != null && !etag.startsWith("W/"))
+            { CompressingResponse.super.setHeader("ETag", "W/" + etag); }
+
+            CompressingResponse.super.setHeader("Content-Encoding", encoding);
+            out = CompressingResponse.super.getOutputStream();
+
+            pool = compression.deflaters(encoding);
+            deflater = pool.acquire();
+            output = new byte[BUFFER_SIZE];
+
+            if (encoding.equals("gzip")) {
+                crc = new CRC32();
+                out.write(GZIP_HEADER);
+            }
+            state = COMPRESSING;
+        }
+
+        private void deflate(byte[] bytes, int offset, int length)
+            throws IOException
+        {
+            if (crc != null)
+            { crc.update(bytes, offset, length); }
+
+            deflater.setInput(bytes, offset, length);
+            while (!deflater.needsInput())
+            { drain(Deflater.NO_FLUSH); }
+        }
+
+        private int drain(int flush)
+            throws IOException
+        {
+            int count = deflater.deflate(output, 0, output.length, flush);
+            if (count > 0)
+            { out.write(output, 0, count); }
+
+            return count;
+        }
+
+        // a sync flush lets the client decode what was sent so far, at a small cost in ratio
+        void flushCompressed()
+            throws IOException
+        {
+            if (state == COMPRESSING) {
+                while (drain(Deflater.SYNC_FLUSH) == output.length) {
+                    // the output buffer was full, more is pending
+                }
+            }
+        }
+
+        // nothing was sent yet while bytes are held back, the decision is made again on the next write
+        void discard() {
+            if (state == BUFFERING) {
+                pending = null;
+                pendingLength = 0;
+                state = UNDECIDED;
+            }
+        }
+
+        // the servlet's own flushes are not forwarded while bytes are held back or compressed,
+        // this keeps small bodies measurable and the compression ratio intact
+        @Override
+        public void flush()
+            throws IOException
+        {
+            if (state == PASS_THROUGH || state == DELEGATING)
+            { out.flush(); }
+        }
+
+        @Override
+        public void close()
+            throws IOException
+        {
+            switch (state) {
+                case UNDECIDED:
+                    if (contentLength >= 0)
+                    { CompressingResponse.super.setContentLengthLong(contentLength); }
+                    break;
+
+                case BUFFERING:
+                    // too small to be worth it, sent as is with its length
+                    CompressingResponse.super.setContentLengthLong(pendingLength);
+                    out = CompressingResponse.super.getOutputStream();
+                    out.write(pending, 0, pendingLength);
+                    pending = null;
+                    break;
+
+                case COMPRESSING:
+                    try {
+                        deflater.finish();
+                        while (!deflater.finished())
+                        { drain(Deflater.NO_FLUSH); }
+
+                        if (crc != null) {
+                            writeIntLE(out, (int) crc.getValue());
+                            writeIntLE(out, (int) deflater.getBytesRead());
+                        }
+                    }
+
+                    finally {
+                        pool.release(deflater);
+                        deflater = null;
+                    }
+                    break;
+
+                // the listener writes after the handler returned, the container completes the response
+                case DELEGATING:
+                    return;
+
+                default:
+                    break;
+            }
+            state = FINISHED;
+        }
+
+        // gzip trailer fields are little-endian, the size is modulo 2^32
+        private void writeIntLE(ServletOutputStream out, int value)
+            throws IOException
+        {
+            out.write(new byte[] { (byte) value, (byte) (value >>> 8), (byte) (value >>> 16), (byte) (value >>> 24) });
+        }
+
+        @Override
+        public boolean isReady()
+        { return out == null || out.isReady(); }
+
+        // non-blocking writes go uncompressed, straight to the wrapped stream; bytes held back
+        // are small and sent first, compressed ones cannot be turned back into identity
+        @Override
+        public void setWriteListener(WriteListener listener) {
+            try {
+                switch (state) {
+                    case UNDECIDED:
+                        passThrough();
+                        break;
+
+                    case BUFFERING:
+                        out = CompressingResponse.super.getOutputStream();
+                        out.write(pending, 0, pendingLength);
+                        pending = null;
+                        break;
+
+                    case PASS_THROUGH:
+                        break;
+
+                    case COMPRESSING:
+                        throw new IllegalStateException("A write listener cannot be set once compressed bytes have been written");
+
+                    default:
+                        throw new IllegalStateException("The response has already been completed");
+                }
+            }
+
+            catch (IOException e)
+            { throw new UncheckedIOException(e); }
+
+            state = DELEGATING;
+            out.setWriteListener(listener);
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package compress;
+
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.zip.Deflater;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import exception.BuildException;
+
+// response compression settings read from the context parameters, and the negotiation of
+// the encoding of each request
+public final class Compression {
+
+    public static final int DEFAULT_MIN_SIZE = 1024;
+
+    private static final String DEFAULT_TYPES =
+        "text/html,text/plain,text/css,text/csv,text/xml,text/javascript," +
+        "application/json,application/javascript,application/xml,application/xhtml+xml,image/svg+xml";
+
+    private final int minSize;
+    private final Set<String> types;
+    private final DeflaterPool gzipDeflaters;
+    private final DeflaterPool zlibDeflaters;
+
+    private Compression(int minSize, Set<String> types, int level) {
+        int poolSize = Math.max(4, Runtime.getRuntime().availableProcessors() * 2);
+
+        this.minSize = minSize;
+        this.types = types;
+        this.gzipDeflaters = new DeflaterPool(level, true, poolSize);
+        this.zlibDeflaters = new DeflaterPool(level, false, poolSize);
+    }
+
+    // null when disabled with compression=off
+    public static Compression configure(String enabled, String minSize, String types, String level)
+        throws BuildException
+    {
+        if (enabled != null && (enabled.trim().equalsIgnoreCase("off") || enabled.trim().equalsIgnoreCase("false")))
+        { return null; }
+
+        Set<String> allowed = new HashSet<>();
+        for (String type : (types != null ? types : DEFAULT_TYPES).split(",")) {
+            if (!type.trim().isEmpty())
+            { allowed.add(type.trim().toLowerCase(Locale.ROOT)); }
+        }
+
+        // 0 would send gzip-framed bytes without compressing them
+        int compressionLevel = parse("compression_level", level, Deflater.DEFAULT_COMPRESSION);
+        if (level != null && (compressionLevel < 1 || compressionLevel > 9))
+        { throw new BuildException("The 'compression_level' parameter must be between 1 and 9"); }
+
+        return new Compression(parse("compression_min_size", minSize, DEFAULT_MIN_SIZE), allowed, compressionLevel);
+    }
+
+    private static int parse(String name, String value, int defaultValue)
+        throws BuildException
+    {
+        if (value == null)
+        { return defaultValue; }
+
+        try
+        { return Integer.parseInt(value.trim()); }
+
+        catch (NumberFormatException e)
+        { throw new BuildException("The '" + name + "' parameter must be an integer: " + value); }
+    }
+
+    // null when the client accepts neither gzip nor deflate
+    public CompressingResponse wrap(HttpServletRequest request, HttpServletResponse response) {
+        String encoding = negotiate(request.getHeader("Accept-Encoding"));
+        return encoding != null ? new CompressingResponse(response, this, encoding) : null;
+    }
+
+    static String negotiate(String acceptEncoding) {
+        if (acceptEncoding == null)
+        { return null; }
+
+        boolean deflate = false;
+        for (String token : acceptEncoding.split(",")) {
+            String[] parts = token.trim().split(";");
+            String coding = parts[0].trim().toLowerCase(Locale.ROOT);
+
+            if (isRefused(parts))
+            { continue; }
+
+            if (coding.equals("gzip") || coding.equals("x-gzip") || coding.equals("*"))
+            { return "gzip"; }
+
+            if (coding.equals("deflate"))
+            { deflate = true; }
+        }
+        return deflate ? "deflate" : null;
+    }
+
+    // q=0 means "not acceptable"
+    private static boolean isRefused(String[] parameters) {
+        for (int i = 1; i < parameters.length; i++) {
+            String parameter = parameters[i].trim();
+            if (parameter.startsWith("q=")) {
+                try
+                { return Double.parseDouble(parameter.substring(2)) <= 0; }
+
+                catch (NumberFormatException e)
+                { return true; }
+            }
+        }
+        return false;
+    }
+
+    boolean isCompressible(String contentType) {
+        if (contentType == null)
+        { return false; }
+
+        int semicolon = contentType.indexOf(';');
+        String mimeType = (semicolon >= 0 ? contentType.substring(0, semicolon) : contentType).trim().toLowerCase(Locale.ROOT);
+
+        return types.contains(mimeType) || mimeType.endsWith("+json") || mimeType.endsWith("+xml");
+    }
+
+    int getMinSize()
+    { return minSize; }
+
+    DeflaterPool deflaters(String encoding)
+    { return encoding.equals("gzip") ? gzipDeflaters : zlibDeflaters; }
+}
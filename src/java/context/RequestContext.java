@@ -0,0 +1,66 @@
+package context;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import routing.PathVariables;
+import session.Session;
+
+// request state of the current thread, for singleton and pooled controllers
+// that cannot receive it through fields
+public final class RequestContext {
+
+    private static final ThreadLocal<RequestContext> CURRENT = new ThreadLocal<>();
+
+    private final HttpServletRequest request;
+    private final HttpServletResponse response;
+    private final PathVariables pathVariables;
+    private Session session;
+    private boolean stateless;
+
+    private RequestContext(HttpServletRequest request, HttpServletResponse response, PathVariables pathVariables) {
+        this.request = request;
+        this.response = response;
+        this.pathVariables = pathVariables;
+    }
+
+    public static RequestContext open(HttpServletRequest request, HttpServletResponse response, PathVariables pathVariables) {
+        RequestContext context = new RequestContext(request, response, pathVariables);
+        CURRENT.set(context);
+        return context;
+    }
+
+    public static RequestContext current() {
+        RequestContext context = CURRENT.get();
+        if (context == null) 
+        { throw new IllegalStateException("No request is being processed by the current thread"); }
+        
+        return context;
+    }
+
+    public void close() 
+    { CURRENT.remove(); }
+
+    public HttpServletRequest getRequest() 
+    { return request; }
+
+    public HttpServletResponse getResponse() 
+    { return response; }
+
+    public PathVariables getPathVariables() 
+    { return pathVariables; }
+
+    // set once the route is known
+    public void setStateless(boolean stateless) 
+    { this.stateless = stateless; }
+
+    public Session getSession() {
+        if (stateless) 
+        { throw new IllegalStateException("The route of " + request.getRequestURI() + " is stateless, it has no session"); }
+
+        if (session == null) 
+        { session = new Session(request); }
+
+        return session;
+    }
+}
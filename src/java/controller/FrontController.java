@@ -2,10 +2,19 @@ package controller;
 
 import java.io.IOException;
 import java.io.PrintWriter;
-import java.lang.reflect.Method;
 import java.util.HashMap;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
 
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
 import javax.servlet.ServletConfig;
 import javax.servlet.ServletContext;
 import javax.servlet.ServletException;
@@ -14,23 +23,50 @@ import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
 import annotation.AnnotationController;
-import annotation.AnnotationRestAPI;
+import cache.ResultCache;
+import compress.CompressingResponse;
+import compress.Compression;
+import context.RequestContext;
+import convert.ConverterRegistry;
+import dispatch.Bulkhead;
+import dispatch.DispatchExecutors;
 import exception.BuildException;
+import exception.BulkheadFullException;
 import exception.RequestException;
+import exception.UploadLimitException;
 import exception.ValidationException;
+import logging.Logger;
+import mapping.HandlerMethod;
 import mapping.Mapping;
+import mapping.ResponseKind;
+import metrics.Metrics;
+import metrics.Phase;
+import metrics.PhaseTimer;
+import modelview.ModelView;
+import registry.RouteRegistries;
+import registry.RouteRegistry;
 import response.FileExportResult;
+import routing.PathVariables;
+import routing.Router;
 import scanner.ControllerScanner;
 import utils.Utils;
-import verb.VerbAction;
 
 public class FrontController extends HttpServlet {
 
+    private static final Logger log = Logger.getLogger(FrontController.class);
+
     private String controllerPackage;
     private String projectName;
     private ControllerScanner scanner;
     private List<Class<?>> controllers;
     private HashMap<String, Mapping> map = new HashMap<String, Mapping>();
+    private Router router;
+    private String urlPrefix;
+    private Compression compression;
+    private long asyncTimeout = -1;
+    private ExecutorService dispatcher;
+    private Metrics metrics;
+    private String metricsURL;
 
     @Override
     public void init() 
@@ -40,6 +76,14 @@ public class FrontController extends HttpServlet {
             ServletConfig config = this.getServletConfig();
             ServletContext context = config.getServletContext();
 
+            // closed by a previous destroy() when the servlet is reloaded in the same class loader
+            Logger.start();
+
+            // DEBUG, INFO, WARN, ERROR or OFF
+            String logLevel = context.getInitParameter("log_level");
+            if (logLevel != null) 
+            { Logger.setLevel(Logger.parse(logLevel, Logger.getLevel())); }
+
             this.scanner = new ControllerScanner();
             this.controllerPackage = context.getInitParameter("base_package");
             this.projectName = context.getInitParameter("project_name");
@@ -48,50 +92,129 @@ public class FrontController extends HttpServlet {
             if (this.controllerPackage == null || this.controllerPackage.isEmpty()) 
             { throw new BuildException("The 'base_package' parameters is empty or undifined in web.xml"); }
 
-            this.controllers = scanner.findClasses(controllerPackage, AnnotationController.class);
+            // maximum number of cached handler results
+            String cacheSize = context.getInitParameter("result_cache_size");
+            if (cacheSize != null) {
+                if (!cacheSize.trim().matches("[1-9][0-9]{0,8}")) 
+                { throw new BuildException("The 'result_cache_size' parameter must be a positive integer"); }
+
+                ResultCache.configure(Integer.parseInt(cacheSize.trim()));
+            }
+
+            // gzip/deflate of textual responses, disabled with compression=off
+            this.compression = Compression.configure(
+                context.getInitParameter("compression"),
+                context.getInitParameter("compression_min_size"),
+                context.getInitParameter("compression_types"),
+                context.getInitParameter("compression_level"));
+
+            // milliseconds an async handler may take, the container default when absent, 0 for none
+            String asyncTimeout = context.getInitParameter("async_timeout");
+            if (asyncTimeout != null) {
+                if (!asyncTimeout.trim().matches("[0-9]{1,12}")) 
+                { throw new BuildException("The 'async_timeout' parameter must be a number of milliseconds"); }
+
+                this.asyncTimeout = Long.parseLong(asyncTimeout.trim());
+            }
 
-            // not existing base_package
-            if (this.controllers.isEmpty()) 
-            { throw new BuildException("The folder specified by 'base_package' doesn't exist"); }
+            // container (default), virtual or platform threads for the handlers
+            String dispatchThreads = context.getInitParameter("dispatch_threads");
+            if (dispatchThreads != null && !dispatchThreads.trim().matches("[1-9][0-9]{0,4}")) 
+            { throw new BuildException("The 'dispatch_threads' parameter must be a positive integer"); }
 
-            // mapping and scanning
-            this.scanner.map(this.map, this.controllers);
+            this.dispatcher = DispatchExecutors.forMode(
+                context.getInitParameter("dispatch_mode"),
+                dispatchThreads != null ? Integer.parseInt(dispatchThreads.trim()) : DispatchExecutors.DEFAULT_PLATFORM_THREADS);
+
+            // application converters must be known before binding plans are built
+            ConverterRegistry.getInstance().loadProviders(Thread.currentThread().getContextClassLoader());
+
+            // routes generated at compile time skip classpath scanning and reflective dispatch
+            RouteRegistry registry = RouteRegistries.load(Thread.currentThread().getContextClassLoader());
+            int generatedRoutes = registry != null ? this.scanner.map(this.map, registry, controllerPackage) : 0;
+
+            if (generatedRoutes > 0) 
+            { log.info("Loaded {} routes from the generated route registry", generatedRoutes); }
+            
+            else {
+                this.controllers = scanner.findClasses(controllerPackage, AnnotationController.class);
+
+                // not existing base_package
+                if (this.controllers.isEmpty()) 
+                { throw new BuildException("The folder specified by 'base_package' doesn't exist"); }
+
+                // mapping and scanning
+                this.scanner.map(this.map, this.controllers);
+            }
+
+            this.router = Router.build(this.map);
+            this.urlPrefix = "/" + this.projectName + "/";
+
+            // per-route metrics served in the Prometheus text format, off unless a path is given
+            String metricsPath = context.getInitParameter("metrics_path");
+            if (metricsPath != null && !metricsPath.trim().isEmpty()) {
+                if (!metricsPath.trim().startsWith("/")) 
+                { throw new BuildException("The 'metrics_path' parameter must start with '/'"); }
+
+                this.metrics = new Metrics();
+                this.metricsURL = this.urlPrefix + metricsPath.trim().substring(1);
+                log.info("Metrics served at {}", this.metricsURL);
+            }
         } 
         
         catch (BuildException | RequestException e) {
-            System.err.println(e.getMessage());
+            log.error(e.getMessage());
             throw new ServletException(e);
         }
         
         catch (Exception e) 
-        { e.printStackTrace(); }
+        { log.error("FrontController initialization failed", e); }
     }
 
     protected void processRequest(HttpServletRequest request, HttpServletResponse response)
         throws ServletException, IOException 
     {
+        // views, JSON and exports all write through the compressing response when negotiated
+        CompressingResponse compressed = this.compression != null ? this.compression.wrap(request, response) : null;
+        if (compressed != null)
+        { response = compressed; }
+
+        boolean async = false;
+        long started = this.metrics != null ? System.nanoTime() : 0;
+        PhaseTimer timer = null;
+
+        PathVariables pathVariables = new PathVariables();
+        RequestContext requestContext = RequestContext.open(request, response, pathVariables);
+        HandlerMethod handler = null;
+
         try {
             // PrintWriter out = response.getWriter();
 
             String url = request.getRequestURI();
             String methodRequest = request.getMethod();
-            String requestedURL = Utils.parseURL(this.projectName, url);
-            
-            Mapping mapping = this.map.get(requestedURL);
 
-            if (mapping == null) {
-                throw new RequestException("404 NOT FOUND: specified URL not found : " + requestedURL);
+            if (this.metricsURL != null && url.equals(this.metricsURL)) {
+                response.setContentType(Metrics.CONTENT_TYPE);
+                this.metrics.write(response.getWriter());
+                return;
             }
 
-            VerbAction matchingVerbAction = null;
-            for (VerbAction verbAction : mapping.getVerbActions()) {
-                if (verbAction.getVerb().equalsIgnoreCase(methodRequest)) {
-                    matchingVerbAction = verbAction;
-                    break;
-                }
+            // match in place, the application path starts at the '/' closing the project prefix
+            Mapping mapping = url.startsWith(this.urlPrefix) ? this.router.match(url, this.urlPrefix.length() - 1, pathVariables) : null;
+
+            if (mapping == null) {
+                if (this.metrics != null) 
+                { this.metrics.recordUnrouted(); }
+
+                throw new RequestException("404 NOT FOUND: specified URL not found : " + Utils.parseURL(this.projectName, url));
             }
 
-            if (matchingVerbAction == null) {
+            handler = mapping.getHandler(methodRequest);
+
+            if (handler == null) {
+                if (this.metrics != null) 
+                { this.metrics.recordUnrouted(); }
+
                 response.setStatus(HttpServletResponse.SC_METHOD_NOT_ALLOWED);  
                 response.setContentType("text/html");  
 
@@ -99,53 +222,310 @@ public class FrontController extends HttpServlet {
                 
                 errorOut.println("<h1>500 METHOD NOT ALLOWED</h1>");
                 errorOut.println("<hr>");
-                errorOut.println("<h4>" + methodRequest + " method is not allowed for the URL: " + requestedURL + "</h4>");
+                errorOut.println("<h4>" + methodRequest + " method is not allowed for the URL: " + Utils.parseURL(this.projectName, url) + "</h4>");
 
                 errorOut.flush();  
                 return;  
             }
 
-            // invoke methods by reflection
-            Object result = Mapping.reflectMethod(mapping, request, methodRequest);
+            if (this.metrics != null) {
+                timer = this.metrics.start(handler, started);
+                timer.mark(Phase.LOOKUP);
+            }
 
-            // find the method with its parameters
-            Class<?> controllerClass = Class.forName(mapping.getClassName());
-            Method method = null;
-            
-            // look through all methods to find the matching one
-            for (Method m : controllerClass.getDeclaredMethods()) {
-                if (m.getName().equals(matchingVerbAction.getMethod())) {
-                    method = m;
-                    break;
+            requestContext.setStateless(handler.isStateless());
+
+            // the handler runs on the dispatch executor, the response completes there
+            if (this.dispatcher != null && request.isAsyncSupported()) {
+                dispatch(handler, request, response, compressed, pathVariables, timer);
+                async = true;
+                return;
+            }
+
+            // invoke the resolved handler
+            Object result = invoke(handler, request, pathVariables, timer);
+
+            if (result instanceof CompletionStage) {
+                // the container thread is given back, the response completes with the future
+                if (request.isAsyncSupported()) {
+                    completeAsync((CompletionStage<?>) result, handler, request, response, compressed, timer);
+                    async = true;
+                    return;
                 }
+
+                // the servlet is not declared async-supported, the container thread waits
+                result = await((CompletionStage<?>) result);
             }
 
-            if (method == null) {
-                throw new NoSuchMethodException("Method " + matchingVerbAction.getMethod() + 
-                    " not found in " + mapping.getClassName());
+            writeResult(result, handler, request, response);
+            if (timer != null) 
+            { timer.mark(Phase.RENDERING); }
+        } 
+        
+        catch (Exception e) {
+            if (timer != null) 
+            { timer.fail(e); }
+
+            logFailure(request, e);
+            handleException(e, response, request, handler); 
+        }
+
+        finally {
+            try {
+                if (compressed != null && !async)
+                { compressed.finish(); }
             }
 
-            // result handling logic 
-            if (result instanceof FileExportResult) 
-            { Utils.handleFileExport((FileExportResult) result, response); }
+            finally {
+                if (timer != null && !async) 
+                { timer.finish(); }
 
-            else if (method.isAnnotationPresent(AnnotationRestAPI.class))
-            { Utils.handleRestAPI(result, response); }
-            
-            else
-            {
-                PrintWriter out = response.getWriter();
-                Utils.handleModelView(result, out, request, response);
+                requestContext.close();
+            }
+        }
+    }
+
+    // runs the handler within its route's bulkhead, the permit is kept until an async result completes
+    private static Object invoke(HandlerMethod handler, HttpServletRequest request, PathVariables pathVariables, PhaseTimer timer) 
+        throws Exception 
+    {
+        Bulkhead bulkhead = handler.getBulkhead();
+        if (bulkhead == null) 
+        { return Mapping.reflectMethod(handler, request, pathVariables, timer); }
+
+        bulkhead.acquire();
+        boolean held = false;
+
+        try {
+            Object result = Mapping.reflectMethod(handler, request, pathVariables, timer);
+            if (result instanceof CompletionStage) {
+                held = true;
+                return ((CompletionStage<?>) result).whenComplete((value, failure) -> bulkhead.release());
             }
+            return result;
         } 
         
-        catch (Exception e) {
-            e.printStackTrace(); 
-            handleException(e, response, request); 
+        finally {
+            if (!held) 
+            { bulkhead.release(); }
+        }
+    }
+
+    // the container thread only starts async processing, binding, the handler and the
+    // rendering run on a dispatch thread
+    private void dispatch(HandlerMethod handler, HttpServletRequest request, HttpServletResponse response, CompressingResponse compressed, PathVariables pathVariables, PhaseTimer timer) {
+        CompletableFuture<Object> completion = new CompletableFuture<>();
+        completeAsync(completion, handler, request, response, compressed, timer);
+
+        try {
+            this.dispatcher.execute(() -> {
+                if (timer != null) 
+                { timer.mark(Phase.QUEUE); }
+
+                RequestContext requestContext = RequestContext.open(request, response, pathVariables);
+                requestContext.setStateless(handler.isStateless());
+
+                try {
+                    Object result = invoke(handler, request, pathVariables, timer);
+
+                    if (result instanceof CompletionStage) {
+                        ((CompletionStage<?>) result).whenComplete((value, failure) -> {
+                            if (failure != null) 
+                            { completion.completeExceptionally(failure); }
+
+                            else 
+                            { completion.complete(value); }
+                        });
+                    }
+
+                    else 
+                    { completion.complete(result); }
+                } 
+                
+                catch (Throwable e) 
+                { completion.completeExceptionally(e); }
+                
+                finally 
+                { requestContext.close(); }
+            });
+        } 
+        
+        // the executor is shut down while the application stops
+        catch (RejectedExecutionException e) 
+        { completion.completeExceptionally(e); }
+    }
+
+    // result handling logic 
+    private void writeResult(Object result, HandlerMethod handler, HttpServletRequest request, HttpServletResponse response) 
+        throws Exception 
+    {
+        if (result instanceof FileExportResult) 
+        { Utils.handleFileExport((FileExportResult) result, request, response); }
+
+        else if (handler.getResponseKind() == ResponseKind.REST)
+        { Utils.handleRestAPI(result, handler.getJsonType(), request, response); }
+        
+        else
+        {
+            PrintWriter out = response.getWriter();
+            Utils.handleModelView(result, out, request, response);
         }
     }
 
-    private void handleException(Exception e, HttpServletResponse response, HttpServletRequest request) 
+    // timer is null when metrics are disabled
+    private void completeAsync(CompletionStage<?> stage, HandlerMethod handler, HttpServletRequest request, HttpServletResponse response, CompressingResponse compressed, PhaseTimer timer) {
+        // views are dispatched by the container to their JSP and bypass the compression stage
+        HttpServletResponse target = handler.getResponseKind() == ResponseKind.MODEL_VIEW && compressed != null
+            ? (HttpServletResponse) compressed.getResponse()
+            : response;
+        CompressingResponse finisher = target == compressed ? compressed : null;
+
+        AsyncContext asyncContext = request.startAsync(request, target);
+        if (this.asyncTimeout >= 0) 
+        { asyncContext.setTimeout(this.asyncTimeout); }
+
+        // whichever of the completion and the timeout comes first writes the response
+        AtomicBoolean answered = new AtomicBoolean();
+
+        asyncContext.addListener(new AsyncListener() {
+            @Override
+            public void onTimeout(AsyncEvent event) 
+                throws IOException 
+            {
+                if (!answered.compareAndSet(false, true)) 
+                { return; }
+
+                log.warn("Request " + request.getMethod() + " " + request.getRequestURI() + " timed out after " + asyncContext.getTimeout() + " ms");
+                try {
+                    target.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+                    target.getWriter().print(createErrorJSON("Service Unavailable", "The request timed out"));
+                    finish(finisher);
+                } 
+                
+                finally {
+                    // phases still running on the handler's thread are left out, their later marks are dropped
+                    if (timer != null) {
+                        timer.fail("AsyncTimeout");
+                        timer.finish();
+                    }
+                    asyncContext.complete();
+                }
+            }
+
+            @Override
+            public void onError(AsyncEvent event) 
+            { answered.set(true); }
+
+            @Override
+            public void onComplete(AsyncEvent event) 
+            { }
+
+            @Override
+            public void onStartAsync(AsyncEvent event) 
+            { }
+        });
+
+        stage.whenComplete((value, failure) -> {
+            if (!answered.compareAndSet(false, true)) 
+            { return; }
+
+            // waiting for the future counts as invocation
+            if (timer != null) 
+            { timer.mark(Phase.INVOCATION); }
+
+            boolean dispatched = false;
+            try {
+                if (failure != null) 
+                { throw unwrap(failure); }
+
+                if (value instanceof ModelView && handler.getResponseKind() == ResponseKind.MODEL_VIEW) {
+                    ModelView.dispatch((ModelView) value, request, asyncContext);
+                    dispatched = true;
+                }
+
+                else 
+                { writeResult(value, handler, request, target); }
+
+                if (timer != null) 
+                { timer.mark(Phase.RENDERING); }
+            } 
+            
+            catch (Exception e) {
+                if (timer != null) 
+                { timer.fail(e); }
+
+                logFailure(request, e);
+                try 
+                { handleException(e, target, request, handler); } 
+                
+                catch (IOException | RuntimeException writeFailure) 
+                { log.error("Cannot write the error response", writeFailure); }
+            }
+
+            finally {
+                if (!dispatched) {
+                    try 
+                    { finish(finisher); } 
+                    
+                    catch (IOException e) 
+                    { log.error("Cannot complete the compressed response", e); }
+
+                    asyncContext.complete();
+                }
+
+                if (timer != null) 
+                { timer.finish(); }
+            }
+        });
+    }
+
+    private static void finish(CompressingResponse compressed) 
+        throws IOException 
+    {
+        if (compressed != null)
+        { compressed.finish(); }
+    }
+
+    private static Object await(CompletionStage<?> stage) 
+        throws Exception 
+    {
+        try 
+        { return stage.toCompletableFuture().get(); } 
+        
+        catch (ExecutionException e) 
+        { throw unwrap(e); }
+        
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw e;
+        }
+    }
+
+    // the handler's own exception, without the future's wrappers
+    private static Exception unwrap(Throwable failure) {
+        Throwable cause = failure;
+        while ((cause instanceof CompletionException || cause instanceof ExecutionException) && cause.getCause() != null) 
+        { cause = cause.getCause(); }
+
+        if (cause instanceof Error) 
+        { throw (Error) cause; }
+
+        return cause instanceof Exception ? (Exception) cause : new RuntimeException(cause);
+    }
+
+    // a full bulkhead is expected under load, it is not worth a stack trace
+    // the single log entry of a failed request; rejections and invalid requests are expected
+    // outcomes and get one line, other failures their stack trace
+    private static void logFailure(HttpServletRequest request, Exception e) {
+        if (e instanceof BulkheadFullException || e instanceof ValidationException || e instanceof RequestException) 
+        { log.warn("Request " + request.getMethod() + " " + request.getRequestURI() + " rejected: " + e.getMessage()); }
+
+        else 
+        { log.error("Request " + request.getMethod() + " " + request.getRequestURI() + " failed", e); }
+    }
+
+    // handler is null when the request was not routed
+    private void handleException(Exception e, HttpServletResponse response, HttpServletRequest request, HandlerMethod handler) 
         throws IOException 
     {
         PrintWriter out = response.getWriter();
@@ -156,8 +536,8 @@ public class FrontController extends HttpServlet {
             response.setStatus(HttpServletResponse.SC_BAD_REQUEST);
             response.setContentType("application/json");
             
-            // Check if it's an AJAX/API request
-            if (isAjaxRequest(request)) {
+            // Check if it's an AJAX/API request, stateless routes cannot keep the errors for a redirect
+            if (isAjaxRequest(request) || (handler != null && handler.isStateless())) {
                 out.print(ve.toJSON());
             } 
             
@@ -168,6 +548,16 @@ public class FrontController extends HttpServlet {
             }
         } 
 
+        else if (e instanceof BulkheadFullException) {
+            response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+            out.print(createErrorJSON("Service Unavailable", e.getMessage()));
+        }
+
+        else if (e instanceof UploadLimitException) {
+            response.setStatus(HttpServletResponse.SC_REQUEST_ENTITY_TOO_LARGE);
+            out.print(createErrorJSON("Payload Too Large", e.getMessage()));
+        }
+
         else if (e instanceof RequestException) {
             response.setStatus(HttpServletResponse.SC_NOT_FOUND);
             out.print(createErrorJSON("Not Found", e.getMessage()));
@@ -192,6 +582,16 @@ public class FrontController extends HttpServlet {
         return String.format("{\"error\": \"%s\", \"message\": \"%s\"}", type, message);
     }
     
+    @Override
+    public void destroy() {
+        if (this.dispatcher != null) 
+        { this.dispatcher.shutdown(); }
+
+        log.info("Result cache: " + ResultCache.getInstance().getStats());
+        Logger.shutdown();
+        super.destroy();
+    }
+
     @Override
     protected void doGet(HttpServletRequest request, HttpServletResponse response)
         throws IOException, ServletException 
@@ -0,0 +1,5 @@
+package convert;
+
+public interface Converter<T> {
+    T convert(String value) throws Exception;
+}
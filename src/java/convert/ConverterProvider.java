@@ -0,0 +1,7 @@
+package convert;
+
+// SPI for application converters, implementations are listed in
+// META-INF/services/convert.ConverterProvider and loaded when the FrontController starts
+public interface ConverterProvider {
+    void register(ConverterRegistry registry);
+}
@@ -0,0 +1,108 @@
+package convert;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Map;
+import java.util.ServiceLoader;
+import java.util.concurrent.ConcurrentHashMap;
+
+import exception.BuildException;
+
+// converters from request values to parameter and field types, keyed by target type;
+// binders resolve their converter once, when the handler or model plan is built
+public final class ConverterRegistry {
+
+    private static final ConverterRegistry INSTANCE = new ConverterRegistry();
+
+    private final Map<Class<?>, TypeConverter> converters = new ConcurrentHashMap<>();
+
+    private ConverterRegistry() {
+        register(String.class, value -> value);
+
+        register(int.class, Integer::parseInt);
+        register(Integer.class, Integer::valueOf);
+        register(long.class, Long::parseLong);
+        register(Long.class, Long::valueOf);
+        register(double.class, Double::parseDouble);
+        register(Double.class, Double::valueOf);
+        register(float.class, Float::parseFloat);
+        register(Float.class, Float::valueOf);
+        register(short.class, Short::parseShort);
+        register(Short.class, Short::valueOf);
+        register(byte.class, Byte::parseByte);
+        register(Byte.class, Byte::valueOf);
+        register(boolean.class, ConverterRegistry::parseBoolean);
+        register(Boolean.class, ConverterRegistry::parseBoolean);
+        register(char.class, ConverterRegistry::parseChar);
+        register(Character.class, ConverterRegistry::parseChar);
+
+        register(BigDecimal.class, BigDecimal::new);
+        register(BigInteger.class, BigInteger::new);
+
+        register(LocalDate.class, DateTimes::parseDate);
+        register(LocalTime.class, DateTimes::parseTime);
+        register(LocalDateTime.class, DateTimes::parseDateTime);
+
+        // datetime-local values are accepted for dates too, only the date part is kept
+        register(java.sql.Date.class, value -> java.sql.Date.valueOf(
+            value.length() == 10 ? DateTimes.parseDate(value) : DateTimes.parseDateTime(value).toLocalDate()));
+        register(Timestamp.class, value -> Timestamp.valueOf(DateTimes.parseDateTime(value)));
+    }
+
+    public static ConverterRegistry getInstance() 
+    { return INSTANCE; }
+
+    public <T> void register(Class<T> type, Converter<? extends T> converter) 
+    { converters.put(type, new TypeConverter(type, converter)); }
+
+    // registers the converters of every ConverterProvider visible from the class loader
+    public void loadProviders(ClassLoader classLoader) {
+        for (ConverterProvider provider : ServiceLoader.load(ConverterProvider.class, classLoader)) 
+        { provider.register(this); }
+    }
+
+    // returns null when no converter handles the type
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    public TypeConverter resolve(Class<?> type) {
+        TypeConverter converter = converters.get(type);
+
+        if (converter == null && type.isEnum()) {
+            Class<? extends Enum> enumType = (Class<? extends Enum>) type;
+            converter = new TypeConverter(type, value -> Enum.valueOf(enumType, value));
+            converters.putIfAbsent(type, converter);
+        }
+
+        return converter;
+    }
+
+    public TypeConverter require(Class<?> type, String target) 
+        throws BuildException 
+    {
+        TypeConverter converter = resolve(type);
+        if (converter == null) 
+        { throw new BuildException("Unsupported type " + type.getName() + " for " + target + ", register a converter through ConverterRegistry"); }
+        
+        return converter;
+    }
+
+    private static Boolean parseBoolean(String value) {
+        if (value.equalsIgnoreCase("true") || value.equalsIgnoreCase("on") || value.equals("1")) 
+        { return Boolean.TRUE; }
+
+        if (value.equalsIgnoreCase("false") || value.equalsIgnoreCase("off") || value.equals("0")) 
+        { return Boolean.FALSE; }
+
+        throw new IllegalArgumentException(value);
+    }
+
+    private static Character parseChar(String value) {
+        if (value.length() != 1) 
+        { throw new IllegalArgumentException(value); }
+
+        return value.charAt(0);
+    }
+}
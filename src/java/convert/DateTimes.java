@@ -0,0 +1,89 @@
+package convert;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
+// allocation-light parsers for the values sent by date, time and datetime-local inputs:
+// yyyy-MM-dd, HH:mm[:ss[.fraction]] and yyyy-MM-dd('T'|' ')HH:mm[:ss[.fraction]]
+final class DateTimes {
+
+    private DateTimes() 
+    { }
+
+    static LocalDate parseDate(String value) {
+        if (value.length() != 10) 
+        { throw new IllegalArgumentException(value); }
+
+        return date(value);
+    }
+
+    static LocalTime parseTime(String value) 
+    { return time(value, 0); }
+
+    static LocalDateTime parseDateTime(String value) {
+        if (value.length() == 10) 
+        { return date(value).atStartOfDay(); }
+
+        if (value.length() < 16 || (value.charAt(10) != 'T' && value.charAt(10) != ' ')) 
+        { throw new IllegalArgumentException(value); }
+
+        return LocalDateTime.of(date(value), time(value, 11));
+    }
+
+    private static LocalDate date(String value) {
+        expect(value, 4, '-');
+        expect(value, 7, '-');
+        return LocalDate.of(digits(value, 0, 4), digits(value, 5, 2), digits(value, 8, 2));
+    }
+
+    private static LocalTime time(String value, int from) {
+        int length = value.length() - from;
+        if (length < 5) 
+        { throw new IllegalArgumentException(value); }
+
+        expect(value, from + 2, ':');
+        int hour = digits(value, from, 2);
+        int minute = digits(value, from + 3, 2);
+        int second = 0;
+        int nanos = 0;
+
+        if (length > 5) {
+            expect(value, from + 5, ':');
+            second = digits(value, from + 6, 2);
+
+            if (length > 8) {
+                expect(value, from + 8, '.');
+                int fractionDigits = length - 9;
+                if (fractionDigits < 1 || fractionDigits > 9) 
+                { throw new IllegalArgumentException(value); }
+
+                nanos = digits(value, from + 9, fractionDigits);
+                for (int i = fractionDigits; i < 9; i++) 
+                { nanos *= 10; }
+            }
+        }
+
+        return LocalTime.of(hour, minute, second, nanos);
+    }
+
+    private static void expect(String value, int index, char expected) {
+        if (index >= value.length() || value.charAt(index) != expected) 
+        { throw new IllegalArgumentException(value); }
+    }
+
+    private static int digits(String value, int from, int count) {
+        if (from + count > value.length()) 
+        { throw new IllegalArgumentException(value); }
+
+        int result = 0;
+        for (int i = from; i < from + count; i++) {
+            char c = value.charAt(i);
+            if (c < '0' || c > '9') 
+            { throw new IllegalArgumentException(value); }
+            
+            result = result * 10 + (c - '0');
+        }
+        return result;
+    }
+}
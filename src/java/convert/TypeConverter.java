@@ -0,0 +1,54 @@
+package convert;
+
+import exception.RequestException;
+
+// converter resolved for one target type, handles empty values and error reporting
+public final class TypeConverter {
+
+    private final Class<?> type;
+    private final Converter<?> converter;
+    private final Object emptyValue;
+
+    TypeConverter(Class<?> type, Converter<?> converter) {
+        this.type = type;
+        this.converter = converter;
+        this.emptyValue = defaultValue(type);
+    }
+
+    public Object convert(String value) 
+        throws RequestException 
+    {
+        // null or empty values: null for objects, default value for primitives
+        if (value == null || isBlank(value)) 
+        { return emptyValue; }
+
+        try 
+        { return converter.convert(value); } 
+        
+        catch (Exception e) 
+        { throw new RequestException("Invalid value for type " + type.getName() + ": " + value); }
+    }
+
+    public Class<?> getType() 
+    { return type; }
+
+    private static boolean isBlank(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) > ' ') 
+            { return false; }
+        }
+        return true;
+    }
+
+    private static Object defaultValue(Class<?> type) {
+        if (!type.isPrimitive()) return null;
+        if (type == int.class) return 0;
+        if (type == long.class) return 0L;
+        if (type == double.class) return 0.0;
+        if (type == float.class) return 0.0f;
+        if (type == boolean.class) return false;
+        if (type == short.class) return (short) 0;
+        if (type == byte.class) return (byte) 0;
+        return '\0';
+    }
+}
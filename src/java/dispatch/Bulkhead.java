@@ -0,0 +1,65 @@
+package dispatch;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import annotation.AnnotationBulkhead;
+import exception.BuildException;
+import exception.BulkheadFullException;
+
+// concurrency limit of one route, resolved at scan time; a permit is held while the handler
+// runs, until its future completes for async handlers
+public final class Bulkhead {
+
+    private final String route;
+    private final int limit;
+    private final long maxWaitMillis;
+    private final Semaphore permits;
+
+    private Bulkhead(String route, int limit, long maxWaitMillis) {
+        this.route = route;
+        this.limit = limit;
+        this.maxWaitMillis = maxWaitMillis;
+        this.permits = new Semaphore(limit);
+    }
+
+    // null when the route is not limited
+    public static Bulkhead forHandler(String verb, String url, Method method) 
+        throws BuildException 
+    {
+        AnnotationBulkhead bulkhead = method.getAnnotation(AnnotationBulkhead.class);
+        if (bulkhead == null) 
+        { return null; }
+
+        String target = method.getDeclaringClass().getName() + "." + method.getName();
+
+        if (bulkhead.value() < 1) 
+        { throw new BuildException("The bulkhead of " + target + " must allow at least one request"); }
+
+        if (bulkhead.maxWaitMillis() < 0) 
+        { throw new BuildException("The bulkhead wait of " + target + " cannot be negative"); }
+
+        return new Bulkhead(verb + " " + url, bulkhead.value(), bulkhead.maxWaitMillis());
+    }
+
+    public void acquire() 
+        throws BulkheadFullException, InterruptedException 
+    {
+        boolean acquired = maxWaitMillis == 0 
+            ? permits.tryAcquire() 
+            : permits.tryAcquire(maxWaitMillis, TimeUnit.MILLISECONDS);
+
+        if (!acquired) 
+        { throw new BulkheadFullException("The route " + route + " is already serving " + limit + " requests"); }
+    }
+
+    public void release() 
+    { permits.release(); }
+
+    public int getLimit() 
+    { return limit; }
+
+    public int getAvailablePermits() 
+    { return permits.availablePermits(); }
+}
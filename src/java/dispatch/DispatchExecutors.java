@@ -0,0 +1,81 @@
+package dispatch;
+
+import java.lang.reflect.Method;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import exception.BuildException;
+import logging.Logger;
+
+// executors running handlers off the container threads, selected by the dispatch_mode parameter
+public final class DispatchExecutors {
+
+    private static final Logger log = Logger.getLogger(DispatchExecutors.class);
+
+    public static final int DEFAULT_PLATFORM_THREADS = 64;
+
+    private DispatchExecutors() 
+    { }
+
+    // null for "container", the default: handlers run on the request thread
+    public static ExecutorService forMode(String mode, int platformThreads) 
+        throws BuildException 
+    {
+        String value = mode != null ? mode.trim().toLowerCase(Locale.ROOT) : "container";
+
+        switch (value) {
+            case "container":
+                return null;
+
+            case "virtual":
+                ExecutorService virtual = virtualThreads();
+                if (virtual != null) {
+                    log.info("Handlers run on virtual threads");
+                    return virtual;
+                }
+
+                log.warn("Virtual threads need Java 21, handlers run on " + platformThreads + " platform threads");
+                return platformThreads(platformThreads);
+
+            case "platform":
+                log.info("Handlers run on " + platformThreads + " platform threads");
+                return platformThreads(platformThreads);
+
+            default:
+                throw new BuildException("The 'dispatch_mode' parameter must be container, virtual or platform: " + mode);
+        }
+    }
+
+    // looked up reflectively, the framework itself is compiled for Java 8
+    private static ExecutorService virtualThreads() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } 
+        
+        catch (NoSuchMethodException e) 
+        { return null; }
+
+        catch (ReflectiveOperationException e) {
+            log.warn("Cannot create the virtual thread executor: " + e);
+            return null;
+        }
+    }
+
+    private static ExecutorService platformThreads(int size) {
+        AtomicInteger counter = new AtomicInteger();
+
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(size, size, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "framework-dispatch-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+}
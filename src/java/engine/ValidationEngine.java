@@ -1,17 +1,18 @@
 package engine;
 
 import java.lang.annotation.Annotation;
-import java.lang.reflect.Field;
-import java.lang.reflect.Method;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
+import exception.BuildException;
 import exception.ValidationException;
 
+import validation.Number;
 import validation.Size;
-import validation.Valid;
 import validation.NotNull;
 
+import validator.NumberValidator;
 import validator.SizeValidator;
 import validator.NotNullValidator;
 
@@ -20,61 +21,55 @@ import validator.NotNullValidator;
 public class ValidationEngine {
     @SuppressWarnings("rawtypes")
     private static Map<Class<? extends Annotation>, Class<? extends ConstraintValidator>> validators = new HashMap<>();
+
+    // validators are initialized once per annotated field and shared between requests,
+    // so they must not change state after initialize()
+    private static final Map<Class<?>, ValidationPlan> plans = new ConcurrentHashMap<>();
     
     static {
         // Register default validators
         // TODO: implement all validators
         validators.put(Size.class, SizeValidator.class);
         validators.put(NotNull.class, NotNullValidator.class);
+        validators.put(Number.class, NumberValidator.class);
     }
     
     public static ValidationResult validate(Object object) 
         throws ValidationException 
     {
-        ValidationContext context = new ValidationContext(object);
-        
-        if (object.getClass().isAnnotationPresent(Valid.class)) {
-            for (Field field : object.getClass().getDeclaredFields()) {
-                validateField(field, object, context);
-            }
-        }
+        try 
+        { return planFor(object.getClass()).validate(object); } 
         
-        return context.getResult();
+        catch (BuildException e) 
+        { throw new ValidationException(e.getMessage()); }
     }
-    
-    @SuppressWarnings("rawtypes")
-    private static void validateField(Field field, Object object, ValidationContext context) 
-        throws ValidationException 
-    {
-        field.setAccessible(true);
-        
-        for (Annotation annotation : field.getAnnotations()) {
-            Class<? extends ConstraintValidator> validatorClass = validators.get(annotation.annotationType());
-            if (validatorClass != null) {
-                try {
-                    ConstraintValidator validator = validatorClass.getDeclaredConstructor().newInstance();
-                    validator.initialize(annotation);
 
-                    Object value = field.get(object);
-                    if (!validator.isValid(value, context)) {
-                        String message = getValidationMessage(annotation);
-                        context.getResult().addError(field.getName(), message);
-                        context.getResult().setIsValid(false);
-                    }
-                } 
-                
-                catch (Exception e) 
-                { throw new ValidationException("Error validating field: " + field.getName()); }
-            }
+    public static ValidationPlan planFor(Class<?> type) 
+        throws BuildException 
+    {
+        ValidationPlan plan = plans.get(type);
+        if (plan == null) {
+            plans.putIfAbsent(type, new ValidationPlan(type, ValidationEngine::createValidator));
+            plan = plans.get(type);
         }
+        return plan;
     }
 
-    private static String getValidationMessage(Annotation annotation) {
+    @SuppressWarnings("rawtypes")
+    private static ConstraintValidator createValidator(Annotation annotation) 
+        throws BuildException 
+    {
+        Class<? extends ConstraintValidator> validatorClass = validators.get(annotation.annotationType());
+        if (validatorClass == null) 
+        { return null; }
+
         try {
-            Method message = annotation.annotationType().getDeclaredMethod("message");
-            return (String) message.invoke(annotation);
-        } catch (Exception e) {
-            return "Validation failed";
-        }
+            ConstraintValidator validator = validatorClass.getDeclaredConstructor().newInstance();
+            validator.initialize(annotation);
+            return validator;
+        } 
+        
+        catch (Exception e) 
+        { throw new BuildException("Cannot initialize " + validatorClass.getName() + " for @" + annotation.annotationType().getSimpleName() + ": " + e.getMessage()); }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,109 @@
+package engine;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+
+import exception.BuildException;
+import exception.ValidationException;
+import invoker.FieldAccessor;
+import validation.Valid;
+
+// constraints of one class resolved once: field accessors, initialized validators and their messages
+public final class ValidationPlan {
+
+    private final FieldConstraint[] constraints;
+
+    @SuppressWarnings("rawtypes")
+    ValidationPlan(Class<?> type, ValidatorFactory factory) 
+        throws BuildException 
+    {
+        List<FieldConstraint> list = new ArrayList<>();
+
+        // only classes annotated with @Valid are validated
+        if (type.isAnnotationPresent(Valid.class)) {
+            for (Field field : type.getDeclaredFields()) {
+                if (Modifier.isStatic(field.getModifiers())) 
+                { continue; }
+
+                FieldAccessor accessor = null;
+                for (Annotation annotation : field.getAnnotations()) {
+                    ConstraintValidator validator = factory.create(annotation);
+                    if (validator == null) 
+                    { continue; }
+
+                    if (accessor == null) 
+                    { accessor = FieldAccessor.of(field); }
+
+                    list.add(new FieldConstraint(accessor, validator, resolveMessage(annotation)));
+                }
+            }
+        }
+
+        this.constraints = list.toArray(new FieldConstraint[0]);
+    }
+
+    interface ValidatorFactory {
+        @SuppressWarnings("rawtypes")
+        ConstraintValidator create(Annotation annotation) throws BuildException;
+    }
+
+    @SuppressWarnings("unchecked")
+    public ValidationResult validate(Object object) 
+        throws ValidationException 
+    {
+        ValidationContext context = new ValidationContext(object);
+
+        for (FieldConstraint constraint : constraints) {
+            try {
+                Object value = constraint.accessor.get(object);
+                if (!constraint.validator.isValid(value, context)) 
+                { context.getResult().addError(constraint.accessor.getName(), constraint.message); }
+            } 
+            
+            catch (Exception e) 
+            { throw new ValidationException("Error validating field: " + constraint.accessor.getName()); }
+        }
+
+        return context.getResult();
+    }
+
+    public boolean isEmpty() 
+    { return constraints.length == 0; }
+
+    // messages are interpolated once, '{min}' becomes the value of the min() attribute
+    private static String resolveMessage(Annotation annotation) {
+        try {
+            Method messageMethod = annotation.annotationType().getDeclaredMethod("message");
+            String message = (String) messageMethod.invoke(annotation);
+
+            for (Method attribute : annotation.annotationType().getDeclaredMethods()) {
+                String placeholder = "{" + attribute.getName() + "}";
+                if (attribute.getParameterCount() == 0 && message.contains(placeholder)) 
+                { message = message.replace(placeholder, String.valueOf(attribute.invoke(annotation))); }
+            }
+
+            return message;
+        } 
+        
+        catch (Exception e) 
+        { return "Validation failed"; }
+    }
+
+    @SuppressWarnings("rawtypes")
+    private static final class FieldConstraint {
+
+        private final FieldAccessor accessor;
+        private final ConstraintValidator validator;
+        private final String message;
+
+        FieldConstraint(FieldAccessor accessor, ConstraintValidator validator, String message) {
+            this.accessor = accessor;
+            this.validator = validator;
+            this.message = message;
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package engine;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -8,9 +9,14 @@ import java.util.Map;
 public class ValidationResult {
     
     private boolean valid = true;
-    private Map<String, List<String>> errors = new HashMap<>();
+
+    // allocated on the first error, valid objects never pay for it
+    private Map<String, List<String>> errors;
     
     public void addError(String field, String message) {
+        if (errors == null) 
+        { errors = new HashMap<>(); }
+
         errors.computeIfAbsent(field, k -> new ArrayList<>()).add(message);
         valid = false;
     }
@@ -20,7 +26,7 @@ public class ValidationResult {
     }
     
     public Map<String, List<String>> getErrors() {
-        return errors;
+        return errors != null ? errors : Collections.<String, List<String>>emptyMap();
     }
 
     public void addErrors(Map<String, List<String>> errors) {
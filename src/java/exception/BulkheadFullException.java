@@ -0,0 +1,8 @@
+package exception;
+
+// a route's concurrency limit was reached, answered with 503
+public class BulkheadFullException extends RequestException {
+    public BulkheadFullException(String message) {
+        super(message);
+    }
+}
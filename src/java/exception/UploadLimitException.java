@@ -0,0 +1,8 @@
+package exception;
+
+// an upload exceeded a size limit declared on @AnnotationFileUpload, answered with 413
+public class UploadLimitException extends RequestException {
+    public UploadLimitException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,71 @@
+package invoker;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+
+import exception.BuildException;
+
+// getter and setter handles of one field, resolved once instead of setAccessible + Field.get/set per request
+public final class FieldAccessor {
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+    private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+    private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
+    private final Field field;
+    private final MethodHandle getter;
+    private final MethodHandle setter;
+
+    private FieldAccessor(Field field, MethodHandle getter, MethodHandle setter) {
+        this.field = field;
+        this.getter = getter;
+        this.setter = setter;
+    }
+
+    public static FieldAccessor of(Field field) 
+        throws BuildException 
+    {
+        try {
+            field.setAccessible(true);
+            MethodHandle getter = LOOKUP.unreflectGetter(field).asType(GETTER_TYPE);
+            MethodHandle setter = LOOKUP.unreflectSetter(field).asType(SETTER_TYPE);
+
+            return new FieldAccessor(field, getter, setter);
+        } 
+        
+        catch (Exception e) 
+        { throw new BuildException("Cannot access field " + field.getDeclaringClass().getName() + "." + field.getName() + ": " + e.getMessage()); }
+    }
+
+    public Object get(Object target) 
+        throws Exception 
+    {
+        try 
+        { return getter.invokeExact(target); } 
+        
+        catch (Throwable t) 
+        { throw Invokers.rethrow(t); }
+    }
+
+    public void set(Object target, Object value) 
+        throws Exception 
+    {
+        try 
+        { setter.invokeExact(target, value); } 
+        
+        catch (Throwable t) 
+        { throw Invokers.rethrow(t); }
+    }
+
+    public String getName() 
+    { return field.getName(); }
+
+    public Class<?> getType() 
+    { return field.getType(); }
+
+    public Field getField() 
+    { return field; }
+}
@@ -0,0 +1,5 @@
+package invoker;
+
+public interface Instantiator {
+    Object newInstance() throws Exception;
+}
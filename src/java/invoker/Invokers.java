@@ -0,0 +1,123 @@
+package invoker;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import exception.BuildException;
+
+// compiles methods and constructors once at startup, so the request path never goes
+// through Method.invoke or Constructor.newInstance: public handlers are linked through
+// LambdaMetafactory, everything else through a method handle adapted to a fixed shape
+public final class Invokers {
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+    private static final MethodType INVOKER_TYPE = MethodType.methodType(Object.class, Object.class, Object[].class);
+    private static final MethodType INSTANTIATOR_TYPE = MethodType.methodType(Object.class);
+
+    private static final Map<Class<?>, Instantiator> instantiators = new ConcurrentHashMap<>();
+
+    private Invokers() 
+    { }
+
+    public static MethodInvoker forMethod(Method method) 
+        throws BuildException 
+    {
+        try {
+            if (LambdaInvokers.supports(method)) 
+            { return LambdaInvokers.create(LOOKUP, method); }
+
+            method.setAccessible(true);
+            MethodHandle handle = LOOKUP.unreflect(method);
+
+            // static methods get a dummy receiver so every invoker has the same (target, args) shape
+            if (Modifier.isStatic(method.getModifiers())) 
+            { handle = MethodHandles.dropArguments(handle, 0, Object.class); }
+
+            handle = handle.asSpreader(Object[].class, method.getParameterCount()).asType(INVOKER_TYPE);
+            return new MethodHandleInvoker(handle);
+        } 
+        
+        catch (Throwable e) 
+        { throw new BuildException("Cannot compile invoker for " + method.getDeclaringClass().getName() + "." + method.getName() + ": " + e.getMessage()); }
+    }
+
+    public static Instantiator forClass(Class<?> clazz) 
+        throws BuildException 
+    {
+        Instantiator instantiator = instantiators.get(clazz);
+        if (instantiator != null) 
+        { return instantiator; }
+
+        try {
+            Constructor<?> constructor = clazz.getDeclaredConstructor();
+            constructor.setAccessible(true);
+
+            MethodHandle handle = LOOKUP.unreflectConstructor(constructor).asType(INSTANTIATOR_TYPE);
+            instantiator = new MethodHandleInstantiator(handle);
+        } 
+        
+        catch (NoSuchMethodException e) 
+        { throw new BuildException("The class " + clazz.getName() + " must declare a no-argument constructor"); }
+        
+        catch (Exception e) 
+        { throw new BuildException("Cannot compile constructor for " + clazz.getName() + ": " + e.getMessage()); }
+
+        instantiators.putIfAbsent(clazz, instantiator);
+        return instantiator;
+    }
+
+    static Exception rethrow(Throwable t) {
+        if (t instanceof Exception) 
+        { return (Exception) t; }
+
+        if (t instanceof Error) 
+        { throw (Error) t; }
+        
+        return new RuntimeException(t);
+    }
+
+    private static final class MethodHandleInvoker implements MethodInvoker {
+
+        private final MethodHandle handle;
+
+        MethodHandleInvoker(MethodHandle handle) 
+        { this.handle = handle; }
+
+        @Override
+        public Object invoke(Object target, Object[] args) 
+            throws Exception 
+        {
+            try 
+            { return handle.invokeExact(target, args); } 
+            
+            catch (Throwable t) 
+            { throw rethrow(t); }
+        }
+    }
+
+    private static final class MethodHandleInstantiator implements Instantiator {
+
+        private final MethodHandle handle;
+
+        MethodHandleInstantiator(MethodHandle handle) 
+        { this.handle = handle; }
+
+        @Override
+        public Object newInstance() 
+            throws Exception 
+        {
+            try 
+            { return handle.invokeExact(); } 
+            
+            catch (Throwable t) 
+            { throw rethrow(t); }
+        }
+    }
+}
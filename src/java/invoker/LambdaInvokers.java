@@ -0,0 +1,138 @@
+package invoker;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+
+// spins a class per handler through LambdaMetafactory, the call into the controller
+// method is then a plain interface call the JIT can inline
+final class LambdaInvokers {
+
+    static final int MAX_ARITY = 6;
+
+    interface F0 { Object apply(Object t); }
+    interface F1 { Object apply(Object t, Object a); }
+    interface F2 { Object apply(Object t, Object a, Object b); }
+    interface F3 { Object apply(Object t, Object a, Object b, Object c); }
+    interface F4 { Object apply(Object t, Object a, Object b, Object c, Object d); }
+    interface F5 { Object apply(Object t, Object a, Object b, Object c, Object d, Object e); }
+    interface F6 { Object apply(Object t, Object a, Object b, Object c, Object d, Object e, Object f); }
+
+    private static final Class<?>[] SHAPES = { F0.class, F1.class, F2.class, F3.class, F4.class, F5.class, F6.class };
+
+    private LambdaInvokers() 
+    { }
+
+    // only public instance methods of public classes can be linked from this package on every JDK
+    static boolean supports(Method method) {
+        if (Modifier.isStatic(method.getModifiers()) || !Modifier.isPublic(method.getModifiers())) 
+        { return false; }
+
+        if (method.getReturnType() == void.class || method.getParameterCount() > MAX_ARITY) 
+        { return false; }
+
+        for (Class<?> c = method.getDeclaringClass(); c != null; c = c.getEnclosingClass()) {
+            if (!Modifier.isPublic(c.getModifiers())) 
+            { return false; }
+        }
+        
+        return true;
+    }
+
+    static MethodInvoker create(MethodHandles.Lookup lookup, Method method) 
+        throws Throwable 
+    {
+        int arity = method.getParameterCount();
+        Class<?> shape = SHAPES[arity];
+        MethodHandle impl = lookup.unreflect(method);
+
+        Class<?>[] erased = new Class<?>[arity + 1];
+        Class<?>[] instantiated = new Class<?>[arity + 1];
+        erased[0] = Object.class;
+        instantiated[0] = method.getDeclaringClass();
+
+        Class<?>[] parameterTypes = method.getParameterTypes();
+        for (int i = 0; i < arity; i++) {
+            erased[i + 1] = Object.class;
+            instantiated[i + 1] = box(parameterTypes[i]);
+        }
+
+        CallSite site = LambdaMetafactory.metafactory(
+            lookup, 
+            "apply", 
+            MethodType.methodType(shape),
+            MethodType.methodType(Object.class, erased),
+            impl,
+            MethodType.methodType(box(method.getReturnType()), instantiated)
+        );
+
+        Object function = site.getTarget().invoke();
+        switch (arity) {
+            case 0: return new Invoker0((F0) function);
+            case 1: return new Invoker1((F1) function);
+            case 2: return new Invoker2((F2) function);
+            case 3: return new Invoker3((F3) function);
+            case 4: return new Invoker4((F4) function);
+            case 5: return new Invoker5((F5) function);
+            default: return new Invoker6((F6) function);
+        }
+    }
+
+    private static Class<?> box(Class<?> type) {
+        if (!type.isPrimitive()) return type;
+        if (type == int.class) return Integer.class;
+        if (type == long.class) return Long.class;
+        if (type == double.class) return Double.class;
+        if (type == float.class) return Float.class;
+        if (type == boolean.class) return Boolean.class;
+        if (type == char.class) return Character.class;
+        if (type == short.class) return Short.class;
+        return Byte.class;
+    }
+
+    private static final class Invoker0 implements MethodInvoker {
+        private final F0 f;
+        Invoker0(F0 f) { this.f = f; }
+        public Object invoke(Object t, Object[] a) { return f.apply(t); }
+    }
+
+    private static final class Invoker1 implements MethodInvoker {
+        private final F1 f;
+        Invoker1(F1 f) { this.f = f; }
+        public Object invoke(Object t, Object[] a) { return f.apply(t, a[0]); }
+    }
+
+    private static final class Invoker2 implements MethodInvoker {
+        private final F2 f;
+        Invoker2(F2 f) { this.f = f; }
+        public Object invoke(Object t, Object[] a) { return f.apply(t, a[0], a[1]); }
+    }
+
+    private static final class Invoker3 implements MethodInvoker {
+        private final F3 f;
+        Invoker3(F3 f) { this.f = f; }
+        public Object invoke(Object t, Object[] a) { return f.apply(t, a[0], a[1], a[2]); }
+    }
+
+    private static final class Invoker4 implements MethodInvoker {
+        private final F4 f;
+        Invoker4(F4 f) { this.f = f; }
+        public Object invoke(Object t, Object[] a) { return f.apply(t, a[0], a[1], a[2], a[3]); }
+    }
+
+    private static final class Invoker5 implements MethodInvoker {
+        private final F5 f;
+        Invoker5(F5 f) { this.f = f; }
+        public Object invoke(Object t, Object[] a) { return f.apply(t, a[0], a[1], a[2], a[3], a[4]); }
+    }
+
+    private static final class Invoker6 implements MethodInvoker {
+        private final F6 f;
+        Invoker6(F6 f) { this.f = f; }
+        public Object invoke(Object t, Object[] a) { return f.apply(t, a[0], a[1], a[2], a[3], a[4], a[5]); }
+    }
+}
@@ -0,0 +1,5 @@
+package invoker;
+
+public interface MethodInvoker {
+    Object invoke(Object target, Object[] args) throws Exception;
+}
@@ -0,0 +1,132 @@
+package logging;
+
+import java.io.PrintStream;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+// drains the ring buffer on a daemon thread, request threads never wait on the stdout lock;
+// an idle writer parks until the next producer finds it sleeping and unparks it
+final class AsyncLogWriter implements Runnable {
+
+    private static final int CAPACITY = 8192;
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS").withZone(ZoneId.systemDefault());
+
+    private final RingBuffer buffer = new RingBuffer(CAPACITY);
+    private final AtomicLong dropped = new AtomicLong();
+    private final Thread thread;
+    private volatile boolean running = true;
+    private volatile boolean sleeping;
+
+    AsyncLogWriter() {
+        this.thread = new Thread(this, "framework-log-writer");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    // a full buffer drops DEBUG and INFO events, warnings and errors are written by the caller instead
+    void append(LogEvent event) {
+        // the writer is stopping or gone, nothing would drain the buffer
+        if (!running) {
+            write(event);
+            return;
+        }
+
+        if (buffer.offer(event)) {
+            if (sleeping) 
+            { LockSupport.unpark(thread); }
+
+            // shutdown may have begun after the check above, the event may then follow the
+            // writer's final drain
+            if (!running) 
+            { drainStopped(); }
+
+            return;
+        }
+
+        if (event.level.compareTo(LogLevel.WARN) >= 0) 
+        { write(event); }
+        
+        else 
+        { dropped.incrementAndGet(); }
+    }
+
+    long getDropped() 
+    { return dropped.get(); }
+
+    void shutdown() {
+        running = false;
+        LockSupport.unpark(thread);
+        drainStopped();
+    }
+
+    // once the writer thread has ended, the callers take its place as the single consumer, one at
+    // a time; what it still drains when it does not end in time is left to it
+    private synchronized void drainStopped() {
+        try 
+        { thread.join(TimeUnit.SECONDS.toMillis(2)); } 
+        
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+
+        if (!thread.isAlive()) 
+        { drain(); }
+    }
+
+    @Override
+    public void run() {
+        while (running) {
+            if (drain()) 
+            { continue; }
+
+            // the flag is raised before the last look at the buffer: an event published after
+            // that look is followed by the producer reading the flag and unparking this thread
+            sleeping = true;
+            if (running && buffer.isEmpty()) 
+            { LockSupport.park(this); }
+
+            sleeping = false;
+        }
+        drain();
+    }
+
+    private boolean drain() {
+        boolean written = false;
+        LogEvent event;
+
+        while ((event = buffer.poll()) != null) {
+            write(event);
+            written = true;
+        }
+
+        long lost = dropped.getAndSet(0);
+        if (lost > 0) 
+        { System.err.println(DATE_FORMAT.format(Instant.now()) + " WARN  [" + thread.getName() + "] logging - " + lost + " log events dropped, buffer full"); }
+
+        if (written) {
+            System.out.flush();
+            System.err.flush();
+        }
+        return written;
+    }
+
+    static void write(LogEvent event) {
+        PrintStream out = event.level.compareTo(LogLevel.WARN) >= 0 ? System.err : System.out;
+
+        StringBuilder line = new StringBuilder(128)
+            .append(DATE_FORMAT.format(Instant.ofEpochMilli(event.timestamp))).append(' ')
+            .append(event.level).append(event.level.name().length() == 4 ? "  [" : " [")
+            .append(event.thread).append("] ")
+            .append(event.logger).append(" - ")
+            .append(event.message);
+
+        out.println(line);
+        if (event.throwable != null) 
+        { event.throwable.printStackTrace(out); }
+    }
+}
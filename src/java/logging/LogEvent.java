@@ -0,0 +1,20 @@
+package logging;
+
+final class LogEvent {
+
+    final long timestamp;
+    final LogLevel level;
+    final String logger;
+    final String thread;
+    final String message;
+    final Throwable throwable;
+
+    LogEvent(LogLevel level, String logger, String message, Throwable throwable) {
+        this.timestamp = System.currentTimeMillis();
+        this.level = level;
+        this.logger = logger;
+        this.thread = Thread.currentThread().getName();
+        this.message = message;
+        this.throwable = throwable;
+    }
+}
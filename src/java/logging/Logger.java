@@ -0,0 +1,138 @@
+package logging;
+
+// framework logging facade: a disabled level costs one comparison, enabled events are
+// formatted by the caller and handed to a background writer through a lock-free ring buffer
+public final class Logger {
+
+    private static volatile LogLevel level = initialLevel();
+    private static volatile AsyncLogWriter writer;
+    private static volatile boolean closed;
+
+    private final String name;
+
+    private Logger(String name) {
+        this.name = name;
+    }
+
+    public static Logger getLogger(Class<?> clazz) 
+    { return new Logger(clazz.getSimpleName()); }
+
+    public static void setLevel(LogLevel newLevel) 
+    { level = newLevel; }
+
+    public static LogLevel getLevel() 
+    { return level; }
+
+    // reopens the logger after a shutdown, when a FrontController is initialized again in the
+    // same class loader; the writer thread is then started by the next event
+    public static synchronized void start() 
+    { closed = false; }
+
+    // flushes pending events and stops the writer, called when the FrontController is destroyed;
+    // later events, from dispatch tasks or async completions still running, are written by
+    // their caller rather than by a new writer thread that nothing would stop
+    public static synchronized void shutdown() {
+        closed = true;
+
+        if (writer != null) {
+            writer.shutdown();
+            writer = null;
+        }
+    }
+
+    public boolean isDebugEnabled() 
+    { return isEnabled(LogLevel.DEBUG); }
+
+    public boolean isEnabled(LogLevel eventLevel) 
+    { return eventLevel.compareTo(level) >= 0; }
+
+    public void debug(String message) 
+    { log(LogLevel.DEBUG, message, null); }
+
+    public void debug(String format, Object arg) {
+        if (isEnabled(LogLevel.DEBUG)) 
+        { log(LogLevel.DEBUG, format(format, arg), null); }
+    }
+
+    public void debug(String format, Object arg1, Object arg2) {
+        if (isEnabled(LogLevel.DEBUG)) 
+        { log(LogLevel.DEBUG, format(format, arg1, arg2), null); }
+    }
+
+    public void info(String message) 
+    { log(LogLevel.INFO, message, null); }
+
+    public void info(String format, Object arg) {
+        if (isEnabled(LogLevel.INFO)) 
+        { log(LogLevel.INFO, format(format, arg), null); }
+    }
+
+    public void warn(String message) 
+    { log(LogLevel.WARN, message, null); }
+
+    public void warn(String message, Throwable throwable) 
+    { log(LogLevel.WARN, message, throwable); }
+
+    public void error(String message) 
+    { log(LogLevel.ERROR, message, null); }
+
+    public void error(String message, Throwable throwable) 
+    { log(LogLevel.ERROR, message, throwable); }
+
+    private void log(LogLevel eventLevel, String message, Throwable throwable) {
+        if (!isEnabled(eventLevel)) 
+        { return; }
+
+        LogEvent event = new LogEvent(eventLevel, name, message, throwable);
+        AsyncLogWriter current = writer();
+
+        if (current != null) 
+        { current.append(event); }
+        
+        else 
+        { AsyncLogWriter.write(event); }
+    }
+
+    // null once shut down
+    private static AsyncLogWriter writer() {
+        AsyncLogWriter current = writer;
+        if (current == null && !closed) {
+            synchronized (Logger.class) {
+                current = writer;
+                if (current == null && !closed) {
+                    current = new AsyncLogWriter();
+                    writer = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    // replaces each {} with the next argument
+    private static String format(String format, Object... args) {
+        StringBuilder builder = new StringBuilder(format.length() + 32);
+        int argument = 0;
+        int start = 0;
+        int placeholder;
+
+        while (argument < args.length && (placeholder = format.indexOf("{}", start)) >= 0) {
+            builder.append(format, start, placeholder).append(args[argument++]);
+            start = placeholder + 2;
+        }
+
+        return builder.append(format, start, format.length()).toString();
+    }
+
+    private static LogLevel initialLevel() {
+        String configured = System.getProperty("framework.log.level");
+        return configured != null ? parse(configured, LogLevel.INFO) : LogLevel.INFO;
+    }
+
+    public static LogLevel parse(String value, LogLevel fallback) {
+        try 
+        { return LogLevel.valueOf(value.trim().toUpperCase()); } 
+        
+        catch (Exception e) 
+        { return fallback; }
+    }
+}
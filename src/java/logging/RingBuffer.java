@@ -0,0 +1,75 @@
+package logging;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+// bounded lock-free queue for many producers and a single consumer: every slot carries a
+// sequence number telling producers when it is free and the consumer when it is published
+final class RingBuffer {
+
+    private final int mask;
+    private final AtomicReferenceArray<LogEvent> events;
+    private final AtomicLongArray sequences;
+    private final AtomicLong tail = new AtomicLong();
+
+    // only touched by the consumer thread
+    private long head;
+
+    RingBuffer(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        this.mask = size - 1;
+        this.events = new AtomicReferenceArray<>(size);
+        this.sequences = new AtomicLongArray(size);
+
+        for (int i = 0; i < size; i++) 
+        { sequences.set(i, i); }
+    }
+
+    // never blocks, returns false when the buffer is full
+    boolean offer(LogEvent event) {
+        long position = tail.get();
+        int index;
+
+        while (true) {
+            index = (int) position & mask;
+            long difference = sequences.get(index) - position;
+
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1)) 
+                { break; }
+                
+                position = tail.get();
+            } 
+            
+            else if (difference < 0) 
+            { return false; }
+            
+            else 
+            { position = tail.get(); }
+        }
+
+        // a full volatile write, so the writer's sleeping flag read after it by the producer
+        // cannot be reordered before the publication
+        events.set(index, event);
+        sequences.set(index, position + 1);
+        return true;
+    }
+
+    // consumer only
+    boolean isEmpty() 
+    { return sequences.get((int) head & mask) != head + 1; }
+
+    LogEvent poll() {
+        int index = (int) head & mask;
+        if (sequences.get(index) != head + 1) 
+        { return null; }
+
+        LogEvent event = events.get(index);
+        events.set(index, null);
+        sequences.lazySet(index, head + mask + 1);
+        head++;
+
+        return event;
+    }
+}
@@ -0,0 +1,21 @@
+package mapping;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// the view handlers a failed post can re-render, keyed by the route id kept in the session;
+// filled while the handlers are mapped, read-only afterwards
+public final class FormRoutes {
+
+    private static final Map<String, HandlerMethod> routes = new ConcurrentHashMap<>();
+
+    private FormRoutes() 
+    { }
+
+    static void register(HandlerMethod handler) 
+    { routes.put(handler.getRouteId(), handler); }
+
+    // null for an unknown id, such as one stored before a redeployment that removed the route
+    public static HandlerMethod get(String routeId) 
+    { return routeId != null ? routes.get(routeId) : null; }
+}
@@ -0,0 +1,239 @@
+package mapping;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.TypeVariable;
+import java.lang.reflect.WildcardType;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletionStage;
+
+import annotation.AnnotationCacheable;
+import annotation.AnnotationGetMapping;
+import annotation.AnnotationRestAPI;
+import annotation.Auth;
+import annotation.AuthController;
+import auth.AuthPolicy;
+import cache.CachePolicy;
+import binding.ParameterBinder;
+import binding.ParameterBinders;
+import dispatch.Bulkhead;
+import exception.BuildException;
+import invoker.Instantiator;
+import invoker.Invokers;
+import invoker.MethodInvoker;
+import routing.RoutePattern;
+import scope.ControllerProvider;
+import scope.ControllerProviders;
+import session.Session;
+import upload.UploadLimits;
+import response.FileExportResult;
+import response.JsonSerializer;
+
+// immutable descriptor of a controller method bound to a route and a verb, resolved once at scan time
+public final class HandlerMethod {
+
+    private final String verb;
+    private final String url;
+    private final String routeId;
+    private final List<String> pathVariableNames;
+    private final Class<?> controllerClass;
+    private final Method method;
+    private final ResponseKind responseKind;
+    private final boolean async;
+    private final boolean stateless;
+    private final boolean form;
+    private final Annotation[] annotations;
+    private final MethodInvoker invoker;
+    private final ControllerProvider controllerProvider;
+    private final ParameterBinder[] binders;
+    private final Type jsonType;
+    private final UploadLimits uploadLimits;
+    private final CachePolicy cachePolicy;
+    private final AuthPolicy authPolicy;
+    private final Bulkhead bulkhead;
+
+    public HandlerMethod(String verb, String url, Method method) 
+        throws BuildException 
+    { this(verb, url, method, null, null); }
+
+    // invoker and instantiator come from the generated route registry, null to compile them here
+    public HandlerMethod(String verb, String url, Method method, MethodInvoker invoker, Instantiator instantiator) 
+        throws BuildException 
+    {
+        this.verb = verb;
+        this.url = url;
+        this.routeId = verb + " " + url;
+        this.pathVariableNames = Collections.unmodifiableList(RoutePattern.parse(url).getVariableNames());
+        this.controllerClass = method.getDeclaringClass();
+        this.method = method;
+        this.annotations = method.getAnnotations();
+        this.async = CompletionStage.class.isAssignableFrom(method.getReturnType());
+        this.responseKind = resolveResponseKind(method);
+        this.invoker = invoker != null ? invoker : Invokers.forMethod(method);
+        this.controllerProvider = ControllerProviders.forClass(controllerClass, instantiator);
+        this.binders = ParameterBinders.forMethod(method, pathVariableNames);
+
+        // json adapters are built at startup rather than by the first request
+        this.jsonType = responseKind == ResponseKind.REST ? JsonSerializer.prepare(resultType(method)) : null;
+        this.uploadLimits = UploadLimits.forMethod(method);
+        this.cachePolicy = CachePolicy.forHandler(verb, url, method, resultClass(method));
+        this.bulkhead = Bulkhead.forHandler(verb, url, method);
+        this.authPolicy = AuthPolicy.forHandler(method);
+        this.stateless = resolveStateless(method);
+
+        // a synchronous view handler of a GET can be re-rendered when a post fails validation
+        this.form = verb.equals("GET") && responseKind == ResponseKind.MODEL_VIEW && !async && method.isAnnotationPresent(AnnotationGetMapping.class);
+    }
+
+    // everything that would read or create the session is refused up front
+    private static boolean resolveStateless(Method method) 
+        throws BuildException 
+    {
+        AnnotationRestAPI restAPI = method.getAnnotation(AnnotationRestAPI.class);
+        if (restAPI == null || !restAPI.stateless()) 
+        { return false; }
+
+        Class<?> controllerClass = method.getDeclaringClass();
+        String target = "The stateless route " + controllerClass.getName() + "." + method.getName();
+
+        for (Class<?> type : method.getParameterTypes()) {
+            if (type.equals(Session.class)) 
+            { throw new BuildException(target + " cannot take a Session parameter"); }
+        }
+
+        for (Field field : controllerClass.getDeclaredFields()) {
+            if (field.getType().equals(Session.class) && !Modifier.isStatic(field.getModifiers())) 
+            { throw new BuildException(target + " cannot be declared in " + controllerClass.getName() + ", which has Session fields"); }
+        }
+
+        if (method.isAnnotationPresent(Auth.class) || controllerClass.isAnnotationPresent(AuthController.class)) 
+        { throw new BuildException(target + " cannot require authentication, which is kept in the session"); }
+
+        AnnotationCacheable cacheable = method.getAnnotation(AnnotationCacheable.class);
+        if (cacheable != null && cacheable.perProfile()) 
+        { throw new BuildException(target + " cannot cache per profile, which is read from the session"); }
+
+        return true;
+    }
+
+    private static ResponseKind resolveResponseKind(Method method) {
+        if (FileExportResult.class.isAssignableFrom(resultClass(method))) 
+        { return ResponseKind.FILE_EXPORT; }
+
+        if (method.isAnnotationPresent(AnnotationRestAPI.class)) 
+        { return ResponseKind.REST; }
+
+        return ResponseKind.MODEL_VIEW;
+    }
+
+    // type of the value the handler produces, the element of a CompletionStage for async handlers
+    public static Type resultType(Method method) {
+        if (!CompletionStage.class.isAssignableFrom(method.getReturnType())) 
+        { return method.getGenericReturnType(); }
+
+        Type returnType = method.getGenericReturnType();
+        if (returnType instanceof ParameterizedType) {
+            Type[] arguments = ((ParameterizedType) returnType).getActualTypeArguments();
+            if (arguments.length == 1 && !(arguments[0] instanceof TypeVariable)) 
+            { return arguments[0]; }
+        }
+        return Object.class;
+    }
+
+    public static Class<?> resultClass(Method method) {
+        Type type = resultType(method);
+
+        if (type instanceof WildcardType) 
+        { type = ((WildcardType) type).getUpperBounds()[0]; }
+
+        if (type instanceof ParameterizedType) 
+        { type = ((ParameterizedType) type).getRawType(); }
+
+        return type instanceof Class ? (Class<?>) type : Object.class;
+    }
+
+    @SuppressWarnings("unchecked")
+    public <A extends Annotation> A getAnnotation(Class<A> annotationType) {
+        for (Annotation annotation : annotations) {
+            if (annotation.annotationType() == annotationType) 
+            { return (A) annotation; }
+        }
+        return null;
+    }
+
+    public boolean isAnnotationPresent(Class<? extends Annotation> annotationType) 
+    { return getAnnotation(annotationType) != null; }
+
+    public String getVerb() 
+    { return verb; }
+
+    public String getUrl() 
+    { return url; }
+
+    // "GET /orders/{id}/edit", the compact identifier of the route kept in sessions
+    public String getRouteId() 
+    { return routeId; }
+
+    public List<String> getPathVariableNames() 
+    { return pathVariableNames; }
+
+    public boolean isForm() 
+    { return form; }
+
+    public Class<?> getControllerClass() 
+    { return controllerClass; }
+
+    public Method getMethod() 
+    { return method; }
+
+    public ResponseKind getResponseKind() 
+    { return responseKind; }
+
+    // true when the handler returns a CompletionStage completed off the container thread
+    public boolean isAsync() 
+    { return async; }
+
+    // true for @AnnotationRestAPI(stateless = true), the request then has no Session
+    public boolean isStateless() 
+    { return stateless; }
+
+    public MethodInvoker getInvoker() 
+    { return invoker; }
+
+    public ControllerProvider getControllerProvider() 
+    { return controllerProvider; }
+
+    public ParameterBinder[] getBinders() 
+    { return binders; }
+
+    public Type getJsonType() 
+    { return jsonType; }
+
+    // null when the handler takes no upload
+    public UploadLimits getUploadLimits() 
+    { return uploadLimits; }
+
+    // null when results are not cached
+    public CachePolicy getCachePolicy() 
+    { return cachePolicy; }
+
+    // AuthPolicy.PUBLIC when neither the method nor its controller requires authentication
+    public AuthPolicy getAuthPolicy() 
+    { return authPolicy; }
+
+    // null when the route has no concurrency limit
+    public Bulkhead getBulkhead() 
+    { return bulkhead; }
+
+    public Annotation[] getAnnotations() 
+    { return annotations.clone(); }
+
+    @Override
+    public String toString() 
+    { return routeId + " -> " + controllerClass.getName() + "." + method.getName(); }
+}
@@ -0,0 +1,7 @@
+package mapping;
+
+public enum ResponseKind {
+    REST,
+    MODEL_VIEW,
+    FILE_EXPORT
+}
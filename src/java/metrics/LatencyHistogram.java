@@ -0,0 +1,87 @@
+package metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+// log-linear histogram of durations in microseconds, in the manner of HdrHistogram: every
+// power of two is split into 16 linear buckets, so a recorded value is reported within about
+// 6% of its true value from 1us up to about two minutes; recording is lock-free
+public final class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int MAX_SHIFT = 23;
+    private static final int BUCKETS = SUB_BUCKETS + (MAX_SHIFT + 1) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+
+    public void recordNanos(long nanos) {
+        long micros = Math.max(0, nanos / 1000);
+
+        counts.incrementAndGet(index(micros));
+        count.increment();
+        sum.add(micros);
+
+        long current = max.get();
+        while (micros > current && !max.compareAndSet(current, micros)) 
+        { current = max.get(); }
+    }
+
+    // values below 16 have their own bucket, larger ones keep their 5 leading bits
+    static int index(long micros) {
+        if (micros < SUB_BUCKETS) 
+        { return (int) micros; }
+
+        int shift = 63 - Long.numberOfLeadingZeros(micros) - SUB_BUCKET_BITS;
+        if (shift > MAX_SHIFT) 
+        { return BUCKETS - 1; }
+
+        return SUB_BUCKETS + shift * SUB_BUCKETS + (int) (micros >>> shift) - SUB_BUCKETS;
+    }
+
+    // highest value counted in the bucket
+    static long upperBound(int index) {
+        if (index < SUB_BUCKETS) 
+        { return index; }
+
+        int shift = (index - SUB_BUCKETS) / SUB_BUCKETS;
+        int sub = (index - SUB_BUCKETS) % SUB_BUCKETS;
+        return ((long) (SUB_BUCKETS + sub + 1) << shift) - 1;
+    }
+
+    public long getCount() 
+    { return count.sum(); }
+
+    public long getSumMicros() 
+    { return sum.sum(); }
+
+    public long getMaxMicros() 
+    { return max.get(); }
+
+    // value below which the given fraction of the recorded durations fall, 0 when empty;
+    // concurrent recordings may or may not be included
+    public long getQuantileMicros(double quantile) {
+        long[] snapshot = new long[BUCKETS];
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            snapshot[i] = counts.get(i);
+            total += snapshot[i];
+        }
+
+        if (total == 0) 
+        { return 0; }
+
+        long rank = Math.max(1, (long) Math.ceil(quantile * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += snapshot[i];
+            if (seen >= rank) 
+            { return Math.min(upperBound(i), max.get()); }
+        }
+        return max.get();
+    }
+}
@@ -0,0 +1,138 @@
+package metrics;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import cache.CacheStats;
+import cache.ResultCache;
+import dispatch.Bulkhead;
+import mapping.HandlerMethod;
+
+// per-route request metrics, enabled by the metrics_path context parameter and written in
+// the Prometheus text format; when disabled no instance exists and no timer is created
+public final class Metrics {
+
+    public static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    private static final double[] QUANTILES = { 0.5, 0.9, 0.99, 0.999 };
+
+    private final Map<HandlerMethod, RouteMetrics> routes = new ConcurrentHashMap<>();
+    private final LongAdder unrouted = new LongAdder();
+
+    // started is the System.nanoTime() at which the request arrived
+    public PhaseTimer start(HandlerMethod handler, long started) {
+        RouteMetrics route = routes.get(handler);
+        if (route == null) {
+            RouteMetrics created = new RouteMetrics(handler);
+            route = routes.putIfAbsent(handler, created);
+            if (route == null) 
+            { route = created; }
+        }
+        return new PhaseTimer(route, started);
+    }
+
+    // requests matching no route or no verb of a route
+    public void recordUnrouted() 
+    { unrouted.increment(); }
+
+    public void write(Writer out) 
+        throws IOException 
+    {
+        List<RouteMetrics> sorted = new ArrayList<>(routes.values());
+        sorted.sort(Comparator.comparing((RouteMetrics route) -> route.getHandler().getUrl()).thenComparing(route -> route.getHandler().getVerb()));
+
+        header(out, "framework_requests_total", "counter", "Requests handled by route and verb.");
+        for (RouteMetrics route : sorted) 
+        { sample(out, "framework_requests_total", labels(route), route.getRequests()); }
+
+        header(out, "framework_errors_total", "counter", "Failed requests by route, verb and exception type.");
+        for (RouteMetrics route : sorted) {
+            for (Map.Entry<String, LongAdder> error : route.getErrors().entrySet()) 
+            { sample(out, "framework_errors_total", labels(route) + ",exception=\"" + escape(error.getKey()) + "\"", error.getValue().sum()); }
+        }
+
+        header(out, "framework_unrouted_requests_total", "counter", "Requests matching no route or verb.");
+        sample(out, "framework_unrouted_requests_total", null, unrouted.sum());
+
+        header(out, "framework_request_duration_seconds", "summary", "Request latency by route and verb.");
+        for (RouteMetrics route : sorted) 
+        { summary(out, "framework_request_duration_seconds", labels(route), route.getLatency()); }
+
+        header(out, "framework_phase_duration_seconds", "summary", "Time spent in each dispatch phase by route and verb.");
+        for (RouteMetrics route : sorted) {
+            for (Phase phase : Phase.values()) {
+                LatencyHistogram histogram = route.getPhase(phase);
+                if (histogram.getCount() > 0) 
+                { summary(out, "framework_phase_duration_seconds", labels(route) + ",phase=\"" + phase.getLabel() + "\"", histogram); }
+            }
+        }
+
+        header(out, "framework_bulkhead_available_permits", "gauge", "Free permits of the routes with a concurrency limit.");
+        for (RouteMetrics route : sorted) {
+            Bulkhead bulkhead = route.getHandler().getBulkhead();
+            if (bulkhead != null) 
+            { sample(out, "framework_bulkhead_available_permits", labels(route), bulkhead.getAvailablePermits()); }
+        }
+
+        ResultCache cache = ResultCache.getInstance();
+        CacheStats stats = cache.getStats();
+
+        header(out, "framework_result_cache_requests_total", "counter", "Result cache lookups by outcome.");
+        sample(out, "framework_result_cache_requests_total", "result=\"hit\"", stats.getHits());
+        sample(out, "framework_result_cache_requests_total", "result=\"miss\"", stats.getMisses());
+
+        header(out, "framework_result_cache_evictions_total", "counter", "Result cache entries evicted by size.");
+        sample(out, "framework_result_cache_evictions_total", null, stats.getEvictions());
+
+        header(out, "framework_result_cache_expirations_total", "counter", "Result cache entries dropped after their ttl.");
+        sample(out, "framework_result_cache_expirations_total", null, stats.getExpirations());
+
+        header(out, "framework_result_cache_size", "gauge", "Result cache entries.");
+        sample(out, "framework_result_cache_size", null, cache.size());
+
+        out.flush();
+    }
+
+    private static void summary(Writer out, String name, String labels, LatencyHistogram histogram) 
+        throws IOException 
+    {
+        for (double quantile : QUANTILES) 
+        { sample(out, name, labels + ",quantile=\"" + quantile + "\"", seconds(histogram.getQuantileMicros(quantile))); }
+
+        sample(out, name + "_sum", labels, seconds(histogram.getSumMicros()));
+        sample(out, name + "_count", labels, histogram.getCount());
+    }
+
+    private static String seconds(long micros) 
+    { return Double.toString(micros / 1e6); }
+
+    private static void header(Writer out, String name, String type, String help) 
+        throws IOException 
+    {
+        out.write("# HELP " + name + " " + help + "\n");
+        out.write("# TYPE " + name + " " + type + "\n");
+    }
+
+    private static void sample(Writer out, String name, String labels, Object value) 
+        throws IOException 
+    {
+        out.write(name);
+        if (labels != null) 
+        { out.write("{" + labels + "}"); }
+
+        out.write(" " + value + "\n");
+    }
+
+    private static String labels(RouteMetrics route) 
+    { return "route=\"" + escape(route.getHandler().getUrl()) + "\",verb=\"" + route.getHandler().getVerb() + "\""; }
+
+    // label values escape backslashes, quotes and line feeds
+    private static String escape(String value) 
+    { return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n"); }
+}
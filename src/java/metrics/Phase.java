@@ -0,0 +1,20 @@
+package metrics;
+
+// steps of a request timed by PhaseTimer, queue is only spent with a dispatch executor
+public enum Phase {
+    LOOKUP("lookup"),
+    QUEUE("queue"),
+    AUTH("auth"),
+    BINDING("binding"),
+    VALIDATION("validation"),
+    INVOCATION("invocation"),
+    RENDERING("rendering");
+
+    private final String label;
+
+    Phase(String label) 
+    { this.label = label; }
+
+    public String getLabel() 
+    { return label; }
+}
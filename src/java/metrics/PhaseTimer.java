@@ -0,0 +1,50 @@
+package metrics;
+
+// times the phases of one request, created only when metrics are enabled; an async timeout
+// finishes the timer on the container's thread while the handler's thread may still mark it,
+// so the methods are synchronized and marks made after finish are dropped
+public final class PhaseTimer {
+
+    private final RouteMetrics route;
+    private final long started;
+    private final long[] elapsed = new long[Phase.values().length];
+    private int reached;
+    private long last;
+    private String error;
+    private boolean finished;
+
+    PhaseTimer(RouteMetrics route, long started) {
+        this.route = route;
+        this.started = started;
+        this.last = started;
+    }
+
+    // the time since the previous mark is added to the phase, a phase may be marked several times
+    public synchronized void mark(Phase phase) {
+        if (finished) 
+        { return; }
+
+        long now = System.nanoTime();
+        elapsed[phase.ordinal()] += now - last;
+        reached |= 1 << phase.ordinal();
+        last = now;
+    }
+
+    public void fail(Throwable failure) 
+    { fail(failure.getClass().getSimpleName()); }
+
+    // the first failure of the request is the one counted
+    public synchronized void fail(String type) {
+        if (error == null && !finished) 
+        { error = type; }
+    }
+
+    // the phases and the error are recorded as they stand, once
+    public synchronized void finish() {
+        if (finished) 
+        { return; }
+
+        finished = true;
+        route.record(System.nanoTime() - started, elapsed, reached, error);
+    }
+}
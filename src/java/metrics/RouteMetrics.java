@@ -0,0 +1,60 @@
+package metrics;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import mapping.HandlerMethod;
+
+// counters and latency histograms of one handler, shared by all its requests
+public final class RouteMetrics {
+
+    private final HandlerMethod handler;
+    private final LongAdder requests = new LongAdder();
+    private final Map<String, LongAdder> errors = new ConcurrentHashMap<>();
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final LatencyHistogram[] phases = new LatencyHistogram[Phase.values().length];
+
+    RouteMetrics(HandlerMethod handler) {
+        this.handler = handler;
+        for (int i = 0; i < phases.length; i++) 
+        { phases[i] = new LatencyHistogram(); }
+    }
+
+    void record(long nanos, long[] elapsed, int reached, String error) {
+        requests.increment();
+        latency.recordNanos(nanos);
+
+        for (int i = 0; i < phases.length; i++) {
+            if ((reached & (1 << i)) != 0) 
+            { phases[i].recordNanos(elapsed[i]); }
+        }
+
+        if (error != null) {
+            LongAdder counter = errors.get(error);
+            if (counter == null) {
+                LongAdder created = new LongAdder();
+                counter = errors.putIfAbsent(error, created);
+                if (counter == null) 
+                { counter = created; }
+            }
+            counter.increment();
+        }
+    }
+
+    public HandlerMethod getHandler() 
+    { return handler; }
+
+    public long getRequests() 
+    { return requests.sum(); }
+
+    // exception simple name to count
+    public Map<String, LongAdder> getErrors() 
+    { return errors; }
+
+    public LatencyHistogram getLatency() 
+    { return latency; }
+
+    public LatencyHistogram getPhase(Phase phase) 
+    { return phases[phase.ordinal()]; }
+}
@@ -7,8 +7,12 @@ import javax.servlet.http.*;
 
 import java.io.*;
 
+import logging.Logger;
+
 public class ModelView {
     
+    private static final Logger log = Logger.getLogger(ModelView.class);
+    
     String viewURL;
     HashMap<String, Object> data;
 
@@ -28,7 +32,7 @@ public class ModelView {
                 viewURL = "/" + viewURL;
             }
 
-            System.out.println("view URL after correction: " + viewURL);
+            log.debug("view URL after correction: {}", viewURL);
             
             HashMap<String, Object> data = modelView.getData();
 
@@ -38,14 +42,25 @@ public class ModelView {
             RequestDispatcher dispatcher = request.getServletContext().getRequestDispatcher(viewURL);
             
 
-            System.out.println("context path: " + request.getContextPath());
-            System.out.println("servlet path: " + request.getServletPath());
+            log.debug("context path: {}, servlet path: {}", request.getContextPath(), request.getServletPath());
 
             dispatcher.forward(request, response);    
         } 
         
         catch (Exception e) 
-        { e.printStackTrace(); }
+        { log.error("Failed to dispatch to view " + modelView.getViewURL(), e); }
+    }
+
+    // async variant: the container renders the view once the completion thread hands it over
+    public static void dispatch(ModelView modelView, HttpServletRequest request, AsyncContext asyncContext) {
+        String viewURL = modelView.getViewURL();
+        if (!viewURL.startsWith("/")) 
+        { viewURL = "/" + viewURL; }
+
+        for (HashMap.Entry<String, Object> entry : modelView.getData().entrySet()) 
+        { request.setAttribute(entry.getKey(), entry.getValue()); }
+
+        asyncContext.dispatch(request.getServletContext(), viewURL);
     }
 
     public void clearData() 
@@ -0,0 +1,217 @@
+package processor;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+
+import annotation.AnnotationController;
+import annotation.AnnotationGetMapping;
+import annotation.AnnotationPostMapping;
+import annotation.AnnotationURL;
+import registry.RouteRegistry;
+
+// generates registry.GeneratedRouteRegistry from the controllers of the compilation, so that
+// FrontController neither scans the classpath nor dispatches through reflection;
+// enabled with javac -processor processor.RouteRegistryProcessor
+@SupportedAnnotationTypes("annotation.AnnotationController")
+public class RouteRegistryProcessor extends AbstractProcessor {
+
+    private final Map<String, TypeElement> controllers = new LinkedHashMap<>();
+    private boolean generated;
+
+    @Override
+    public SourceVersion getSupportedSourceVersion()
+    { return SourceVersion.latestSupported(); }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        for (Element element : roundEnv.getElementsAnnotatedWith(AnnotationController.class)) {
+            if (element.getKind() != ElementKind.CLASS) {
+                processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "@AnnotationController is only allowed on classes", element);
+                continue;
+            }
+
+            // the registry is written once, controllers generated by later rounds cannot join it
+            if (generated) {
+                processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING, "Controller generated after the route registry, it will be found by scanning only", element);
+                continue;
+            }
+
+            TypeElement type = (TypeElement) element;
+            controllers.put(type.getQualifiedName().toString(), type);
+        }
+
+        // written in the round that found the controllers so that javac compiles it in the next one
+        if (!generated && !controllers.isEmpty()) {
+            generate();
+            generated = true;
+        }
+
+        return false;
+    }
+
+    private void generate() {
+        StringBuilder source = new StringBuilder();
+        int dot = RouteRegistry.GENERATED_CLASS_NAME.lastIndexOf('.');
+        String packageName = RouteRegistry.GENERATED_CLASS_NAME.substring(0, dot);
+        String simpleName = RouteRegistry.GENERATED_CLASS_NAME.substring(dot + 1);
+
+        source.append("package ").append(packageName).append(";\n\n");
+        source.append("import java.util.ArrayList;\n");
+        source.append("import java.util.List;\n\n");
+        source.append("// generated by ").append(getClass().getName()).append(", do not edit\n");
+        source.append("@SuppressWarnings({ \"unchecked\", \"rawtypes\" })\n");
+        source.append("public final class ").append(simpleName).append(" implements RouteRegistry {\n\n");
+        source.append("    @Override\n");
+        source.append("    public List<RouteDefinition> getRoutes() {\n");
+        source.append("        List<RouteDefinition> routes = new ArrayList<>();\n");
+
+        // one method per controller keeps every generated method far from the 64KB limit
+        List<TypeElement> types = new ArrayList<>(controllers.values());
+        for (int i = 0; i < types.size(); i++)
+        { source.append("        controller").append(i).append("(routes);\n"); }
+
+        source.append("        return routes;\n");
+        source.append("    }\n");
+
+        for (int i = 0; i < types.size(); i++)
+        { appendController(source, i, types.get(i)); }
+
+        source.append("}\n");
+
+        TypeElement[] origins = types.toArray(new TypeElement[0]);
+        try (Writer writer = processingEnv.getFiler().createSourceFile(RouteRegistry.GENERATED_CLASS_NAME, origins).openWriter())
+        { writer.write(source.toString()); }
+
+        catch (IOException e)
+        { processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Cannot write " + RouteRegistry.GENERATED_CLASS_NAME + ": " + e.getMessage()); }
+    }
+
+    private void appendController(StringBuilder source, int index, TypeElement type) {
+        String typeName = erasure(type.asType());
+        boolean reachable = isReachable(type);
+        String instantiator = reachable && hasPublicNoArgConstructor(type) ? typeName + "::new" : "null";
+
+        source.append("\n    private static void controller").append(index).append("(List<RouteDefinition> routes) {\n");
+
+        for (ExecutableElement method : ElementFilter.methodsIn(type.getEnclosedElements())) {
+            AnnotationURL url = method.getAnnotation(AnnotationURL.class);
+            if (url == null)
+            { continue; }
+
+            List<String> verbs = new ArrayList<>();
+            if (method.getAnnotation(AnnotationPostMapping.class) != null)
+            { verbs.add("\"POST\""); }
+
+            if (method.getAnnotation(AnnotationGetMapping.class) != null || verbs.isEmpty())
+            { verbs.add("\"GET\""); }
+
+            List<? extends VariableElement> parameters = method.getParameters();
+            StringBuilder parameterTypes = new StringBuilder();
+            for (int i = 0; i < parameters.size(); i++)
+            { parameterTypes.append(i > 0 ? ", " : "").append(erasure(parameters.get(i).asType())).append(".class"); }
+
+            source.append("        routes.add(new RouteDefinition(")
+                .append(processingEnv.getElementUtils().getConstantExpression(url.value())).append(", ")
+                .append("new String[] { ").append(String.join(", ", verbs)).append(" }, ")
+                .append(typeName).append(".class, ")
+                .append('"').append(method.getSimpleName()).append("\", ")
+                .append("new Class<?>[] { ").append(parameterTypes).append(" }, ")
+                .append(reachable && isDirectlyCallable(method) ? invoker(typeName, method) : "null").append(", ")
+                .append(instantiator).append("));\n");
+        }
+
+        source.append("    }\n");
+    }
+
+    // (target, args) -> ((Controller) target).method((A) args[0], ...)
+    private String invoker(String typeName, ExecutableElement method) {
+        StringBuilder call = new StringBuilder();
+
+        if (method.getModifiers().contains(Modifier.STATIC))
+        { call.append(typeName); }
+
+        else
+        { call.append("((").append(typeName).append(") target)"); }
+
+        call.append('.').append(method.getSimpleName()).append('(');
+
+        List<? extends VariableElement> parameters = method.getParameters();
+        for (int i = 0; i < parameters.size(); i++)
+        { call.append(i > 0 ? ", " : "").append('(').append(erasure(parameters.get(i).asType())).append(") args[").append(i).append(']'); }
+
+        call.append(')');
+
+        if (method.getReturnType().getKind() == TypeKind.VOID)
+        { return "(target, args) -> { " + call + "; return null; }"; }
+
+        return "(target, args) -> " + call;
+    }
+
+    // private and package-private members fall back to the method handles compiled at startup
+    private boolean isDirectlyCallable(ExecutableElement method) {
+        if (!method.getModifiers().contains(Modifier.PUBLIC))
+        { return false; }
+
+        // the invoker can only rethrow what MethodInvoker declares
+        Types types = processingEnv.getTypeUtils();
+        TypeMirror exception = processingEnv.getElementUtils().getTypeElement("java.lang.Exception").asType();
+        TypeMirror error = processingEnv.getElementUtils().getTypeElement("java.lang.Error").asType();
+
+        for (TypeMirror thrown : method.getThrownTypes()) {
+            if (!types.isAssignable(thrown, exception) && !types.isAssignable(thrown, error))
+            { return false; }
+        }
+        return true;
+    }
+
+    private boolean isReachable(TypeElement type) {
+        for (Element current = type; current instanceof TypeElement; current = current.getEnclosingElement()) {
+            TypeElement currentType = (TypeElement) current;
+            if (!currentType.getModifiers().contains(Modifier.PUBLIC))
+            { return false; }
+
+            if (currentType.getNestingKind() == NestingKind.MEMBER && !currentType.getModifiers().contains(Modifier.STATIC))
+            { return false; }
+
+            if (currentType.getNestingKind() == NestingKind.LOCAL || currentType.getNestingKind() == NestingKind.ANONYMOUS)
+            { return false; }
+        }
+        return true;
+    }
+
+    private boolean hasPublicNoArgConstructor(TypeElement type) {
+        if (type.getModifiers().contains(Modifier.ABSTRACT))
+        { return false; }
+
+        for (ExecutableElement constructor : ElementFilter.constructorsIn(type.getEnclosedElements())) {
+            if (constructor.getParameters().isEmpty() && constructor.getModifiers().contains(Modifier.PUBLIC) && constructor.getThrownTypes().isEmpty())
+            { return true; }
+        }
+        return false;
+    }
+
+    private String erasure(TypeMirror type)
+    { return processingEnv.getTypeUtils().erasure(type).toString(); }
+}
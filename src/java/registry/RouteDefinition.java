@@ -0,0 +1,49 @@
+package registry;
+
+import invoker.Instantiator;
+import invoker.MethodInvoker;
+
+// one annotated controller method as seen by the processor, the invoker and instantiator
+// are direct calls, null when the generated code cannot reach the member; the verbs are the
+// mapped ones, the method's other annotations are still read from its Method at startup
+public final class RouteDefinition {
+
+    private final String url;
+    private final String[] verbs;
+    private final Class<?> controllerClass;
+    private final String methodName;
+    private final Class<?>[] parameterTypes;
+    private final MethodInvoker invoker;
+    private final Instantiator instantiator;
+
+    public RouteDefinition(String url, String[] verbs, Class<?> controllerClass, String methodName, Class<?>[] parameterTypes, MethodInvoker invoker, Instantiator instantiator) {
+        this.url = url;
+        this.verbs = verbs;
+        this.controllerClass = controllerClass;
+        this.methodName = methodName;
+        this.parameterTypes = parameterTypes;
+        this.invoker = invoker;
+        this.instantiator = instantiator;
+    }
+
+    public String getUrl() 
+    { return url; }
+
+    public String[] getVerbs() 
+    { return verbs.clone(); }
+
+    public Class<?> getControllerClass() 
+    { return controllerClass; }
+
+    public String getMethodName() 
+    { return methodName; }
+
+    public Class<?>[] getParameterTypes() 
+    { return parameterTypes.clone(); }
+
+    public MethodInvoker getInvoker() 
+    { return invoker; }
+
+    public Instantiator getInstantiator() 
+    { return instantiator; }
+}
@@ -0,0 +1,25 @@
+package registry;
+
+import exception.BuildException;
+
+public final class RouteRegistries {
+
+    private RouteRegistries() 
+    { }
+
+    // null when the application was compiled without the processor
+    public static RouteRegistry load(ClassLoader classLoader) 
+        throws BuildException 
+    {
+        try {
+            Class<?> registryClass = Class.forName(RouteRegistry.GENERATED_CLASS_NAME, true, classLoader);
+            return (RouteRegistry) registryClass.getDeclaredConstructor().newInstance();
+        } 
+        
+        catch (ClassNotFoundException e) 
+        { return null; }
+
+        catch (ReflectiveOperationException | ClassCastException | LinkageError e) 
+        { throw new BuildException("Cannot load the generated route registry " + RouteRegistry.GENERATED_CLASS_NAME + ": " + e); }
+    }
+}
@@ -0,0 +1,12 @@
+package registry;
+
+import java.util.List;
+
+// route table generated at compile time by processor.RouteRegistryProcessor: it spares the
+// classpath scan and the reflective calls, not the lookup of each route's Method at startup
+public interface RouteRegistry {
+
+    String GENERATED_CLASS_NAME = "registry.GeneratedRouteRegistry";
+
+    List<RouteDefinition> getRoutes();
+}
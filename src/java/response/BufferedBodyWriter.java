@@ -0,0 +1,90 @@
+package response;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Arrays;
+
+import javax.servlet.http.HttpServletResponse;
+
+// keeps a serialized body in memory while it stays under a limit, so that it can be tagged
+// before anything is sent; a larger body switches to the response writer and streams
+public final class BufferedBodyWriter extends Writer {
+
+    private final HttpServletResponse response;
+    private final int limit;
+    private char[] buffer = new char[4096];
+    private int length;
+    private Writer target;
+
+    public BufferedBodyWriter(HttpServletResponse response, int limit) {
+        this.response = response;
+        this.limit = limit;
+    }
+
+    @Override
+    public void write(char[] chars, int offset, int count) 
+        throws IOException 
+    {
+        if (target != null) {
+            target.write(chars, offset, count);
+            return;
+        }
+
+        if (length + count > limit) {
+            // too large to tag: send what was kept and stream the rest
+            target = response.getWriter();
+            target.write(buffer, 0, length);
+            target.write(chars, offset, count);
+            buffer = null;
+            return;
+        }
+
+        if (length + count > buffer.length) 
+        { buffer = Arrays.copyOf(buffer, Math.min(limit, Math.max(buffer.length * 2, length + count))); }
+
+        System.arraycopy(chars, offset, buffer, length, count);
+        length += count;
+    }
+
+    @Override
+    public void write(String string, int offset, int count) 
+        throws IOException 
+    {
+        if (target != null) {
+            target.write(string, offset, count);
+            return;
+        }
+
+        if (length + count > limit || length + count > buffer.length) {
+            write(string.toCharArray(), offset, count);
+            return;
+        }
+
+        string.getChars(offset, offset + count, buffer, length);
+        length += count;
+    }
+
+    // false once the body went past the limit and was streamed
+    public boolean isBuffered() 
+    { return target == null; }
+
+    public String etag() 
+    { return ETags.of(buffer, length); }
+
+    public void writeTo(Writer writer) 
+        throws IOException 
+    { writer.write(buffer, 0, length); }
+
+    @Override
+    public void flush() 
+        throws IOException 
+    {
+        if (target != null) 
+        { target.flush(); }
+    }
+
+    @Override
+    public void close() 
+        throws IOException 
+    { flush(); }
+}
@@ -0,0 +1,82 @@
+package response;
+
+// a single "bytes=" range of a Range header resolved against the content length
+public final class ByteRange {
+
+    // the range lies entirely past the end of the content, answered with 416
+    public static final ByteRange UNSATISFIABLE = new ByteRange(-1, -1);
+
+    private final long start;
+    private final long end;
+
+    private ByteRange(long start, long end) {
+        this.start = start;
+        this.end = end;
+    }
+
+    // null when the whole content should be sent: no header, a syntax we ignore or several ranges
+    public static ByteRange parse(String header, long contentLength) {
+        if (header == null || contentLength < 0 || !header.startsWith("bytes=")) 
+        { return null; }
+
+        String spec = header.substring("bytes=".length()).trim();
+
+        // multipart/byteranges is not supported, a full response is a valid answer
+        if (spec.indexOf(',') >= 0) 
+        { return null; }
+
+        int dash = spec.indexOf('-');
+        if (dash < 0) 
+        { return null; }
+
+        long first = parseLong(spec.substring(0, dash).trim());
+        long last = parseLong(spec.substring(dash + 1).trim());
+
+        // bytes=-500 is the last 500 bytes
+        if (dash == 0) {
+            if (last <= 0) 
+            { return last == 0 ? UNSATISFIABLE : null; }
+
+            if (contentLength == 0) 
+            { return UNSATISFIABLE; }
+
+            return new ByteRange(Math.max(0, contentLength - last), contentLength - 1);
+        }
+
+        if (first < 0 || (dash < spec.length() - 1 && last < first)) 
+        { return null; }
+
+        if (first >= contentLength) 
+        { return UNSATISFIABLE; }
+
+        long end = dash == spec.length() - 1 ? contentLength - 1 : Math.min(last, contentLength - 1);
+        return new ByteRange(first, end);
+    }
+
+    private static long parseLong(String value) {
+        if (value.isEmpty() || value.length() > 18) 
+        { return -1; }
+
+        long result = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < '0' || c > '9') 
+            { return -1; }
+
+            result = result * 10 + (c - '0');
+        }
+        return result;
+    }
+
+    public long getStart() 
+    { return start; }
+
+    public long getEnd() 
+    { return end; }
+
+    public long getLength() 
+    { return end - start + 1; }
+
+    public String toContentRange(long contentLength) 
+    { return "bytes " + start + "-" + end + "/" + contentLength; }
+}
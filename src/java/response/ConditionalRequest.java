@@ -0,0 +1,77 @@
+package response;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+// If-None-Match / If-Modified-Since / If-Range evaluation for GET responses
+public final class ConditionalRequest {
+
+    private ConditionalRequest() 
+    { }
+
+    // etag null and lastModified -1 when the representation has no such validator
+    public static boolean isNotModified(HttpServletRequest request, String etag, long lastModified) {
+        String ifNoneMatch = request.getHeader("If-None-Match");
+
+        // If-Modified-Since is ignored as soon as If-None-Match is sent
+        if (ifNoneMatch != null) 
+        { return etag != null && matches(ifNoneMatch, etag); }
+
+        if (lastModified < 0) 
+        { return false; }
+
+        long ifModifiedSince = dateHeader(request, "If-Modified-Since");
+
+        // http dates have a one second resolution
+        return ifModifiedSince >= 0 && lastModified / 1000 <= ifModifiedSince / 1000;
+    }
+
+    // a range is only served when the client still holds the same representation
+    public static boolean ifRangeMatches(HttpServletRequest request, String etag, long lastModified) {
+        String ifRange = request.getHeader("If-Range");
+        if (ifRange == null) 
+        { return true; }
+
+        if (ifRange.startsWith("\"")) 
+        { return etag != null && !etag.startsWith("W/") && ifRange.trim().equals(etag); }
+
+        long date = dateHeader(request, "If-Range");
+        return date >= 0 && lastModified >= 0 && lastModified / 1000 == date / 1000;
+    }
+
+    public static void writeValidators(HttpServletResponse response, String etag, long lastModified) {
+        if (etag != null) 
+        { response.setHeader("ETag", etag); }
+
+        if (lastModified >= 0) 
+        { response.setDateHeader("Last-Modified", lastModified); }
+    }
+
+    public static void notModified(HttpServletResponse response, String etag, long lastModified) {
+        response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+        writeValidators(response, etag, lastModified);
+    }
+
+    // If-None-Match uses the weak comparison: W/"x" and "x" match
+    private static boolean matches(String header, String etag) {
+        String expected = opaque(etag);
+
+        for (String candidate : header.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*") || opaque(tag).equals(expected)) 
+            { return true; }
+        }
+        return false;
+    }
+
+    private static String opaque(String etag) 
+    { return etag.startsWith("W/") ? etag.substring(2) : etag; }
+
+    private static long dateHeader(HttpServletRequest request, String name) {
+        try 
+        { return request.getDateHeader(name); } 
+        
+        catch (IllegalArgumentException e) 
+        { return -1; }
+    }
+}
@@ -0,0 +1,13 @@
+package response;
+
+// implemented by results that know their own version, so the framework does not have to
+// hash their body to answer conditional requests
+public interface ETagSupplier {
+
+    // a quoted strong entity tag such as "\"v42\"", null if none
+    String getETag();
+
+    // epoch milliseconds, -1 if unknown
+    default long getLastModified() 
+    { return -1; }
+}
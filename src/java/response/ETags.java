@@ -0,0 +1,63 @@
+package response;
+
+// strong entity tags computed from content: two independent 64-bit hashes, so equal tags
+// mean equal content for any practical purpose without the cost of a cryptographic digest
+public final class ETags {
+
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+    private static final long MIX_SEED = 0x9e3779b97f4a7c15L;
+
+    private ETags() 
+    { }
+
+    public static String of(char[] chars, int length) {
+        long fnv = FNV_OFFSET;
+        long mix = MIX_SEED ^ length;
+
+        for (int i = 0; i < length; i++) {
+            char c = chars[i];
+            fnv = (fnv ^ c) * FNV_PRIME;
+            mix = Long.rotateLeft(mix ^ (c * 0xc2b2ae3d27d4eb4fL), 31) * 0x9e3779b97f4a7c15L;
+        }
+        return format(fnv, finish(mix));
+    }
+
+    public static String of(byte[] bytes) {
+        long fnv = FNV_OFFSET;
+        long mix = MIX_SEED ^ bytes.length;
+
+        for (byte b : bytes) {
+            fnv = (fnv ^ (b & 0xff)) * FNV_PRIME;
+            mix = Long.rotateLeft(mix ^ ((b & 0xff) * 0xc2b2ae3d27d4eb4fL), 31) * 0x9e3779b97f4a7c15L;
+        }
+        return format(fnv, finish(mix));
+    }
+
+    // nginx style tag of a file: it changes with the size or the modification time
+    public static String ofFile(long size, long lastModified) 
+    { return "\"" + Long.toHexString(lastModified) + "-" + Long.toHexString(size) + "\""; }
+
+    private static long finish(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    private static String format(long high, long low) {
+        char[] tag = new char[34];
+        tag[0] = '"';
+        tag[33] = '"';
+        hex(high, tag, 1);
+        hex(low, tag, 17);
+        return new String(tag);
+    }
+
+    private static void hex(long value, char[] out, int offset) {
+        for (int i = 15; i >= 0; i--) {
+            out[offset + i] = Character.forDigit((int) (value & 0xf), 16);
+            value >>>= 4;
+        }
+    }
+}
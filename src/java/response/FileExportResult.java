@@ -1,34 +1,257 @@
 package response;
 
-public class FileExportResult {
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+
+import javax.servlet.ServletRequest;
+
+// file sent as an attachment, backed by a byte array, a stream, a path or a file channel;
+// streams and channels given to it are closed once the response is written
+public class FileExportResult implements Closeable, ETagSupplier {
+
+    private static final int BUFFER_SIZE = 8192;
+
+    // below this a copy costs less than a sendfile, the threshold of Tomcat's DefaultServlet
+    private static final long SENDFILE_MIN_SIZE = 48 * 1024;
+
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
 
     private final byte[] fileContent;
+    private final InputStream stream;
+    private final Path path;
+    private final FileChannel channel;
+    private final long contentLength;
     private final String contentType;
     private final String filename;
 
+    // validators set by the handler, otherwise derived from the content or the file
+    private String etag;
+    private long lastModified = -1;
+    private BasicFileAttributes attributes;
+
     public FileExportResult(byte[] fileContent, String contentType, String filename) {
+        this(fileContent, null, null, null, fileContent != null ? fileContent.length : -1, contentType, filename);
 
         // validations
-        if (fileContent == null) 
+        if (fileContent == null)
         { throw new IllegalArgumentException("File content cannot be null."); }
-        
-        if (contentType == null || contentType.trim().isEmpty()) 
+    }
+
+    // contentLength is -1 when unknown, the response is then chunked and ranges are not offered
+    public FileExportResult(InputStream stream, long contentLength, String contentType, String filename) {
+        this(null, stream, null, null, contentLength, contentType, filename);
+
+        if (stream == null)
+        { throw new IllegalArgumentException("File stream cannot be null."); }
+    }
+
+    public FileExportResult(InputStream stream, String contentType, String filename)
+    { this(stream, -1, contentType, filename); }
+
+    public FileExportResult(Path path, String contentType, String filename) {
+        this(null, null, path, null, -1, contentType, filename);
+
+        if (path == null)
+        { throw new IllegalArgumentException("File path cannot be null."); }
+    }
+
+    public FileExportResult(FileChannel channel, String contentType, String filename) {
+        this(null, null, null, channel, -1, contentType, filename);
+
+        if (channel == null)
+        { throw new IllegalArgumentException("File channel cannot be null."); }
+    }
+
+    private FileExportResult(byte[] fileContent, InputStream stream, Path path, FileChannel channel, long contentLength, String contentType, String filename) {
+        if (contentType == null || contentType.trim().isEmpty())
         { throw new IllegalArgumentException("Content type cannot be null or empty."); }
-        
-        if (filename == null || filename.trim().isEmpty()) 
+
+        if (filename == null || filename.trim().isEmpty())
         { throw new IllegalArgumentException("Filename cannot be null or empty."); }
-        
+
         this.fileContent = fileContent;
+        this.stream = stream;
+        this.path = path;
+        this.channel = channel;
+        this.contentLength = contentLength;
         this.contentType = contentType;
         this.filename = filename;
     }
 
-    public byte[] getFileContent() 
+    // null unless the export was built from a byte array
+    public byte[] getFileContent()
     { return fileContent; }
 
-    public String getContentType() 
+    public String getContentType()
     { return contentType; }
 
-    public String getFilename() 
+    public String getFilename()
     { return filename; }
-}
\ No newline at end of file
+
+    public Path getPath()
+    { return path; }
+
+    public boolean isFileBacked()
+    { return path != null || channel != null; }
+
+    public void setETag(String etag)
+    { this.etag = etag; }
+
+    public void setLastModified(long lastModified)
+    { this.lastModified = lastModified; }
+
+    // from the size and modification time of a path, a hash of a byte array,
+    // null for streams and channels unless set by the handler
+    @Override
+    public String getETag() {
+        if (etag == null) {
+            BasicFileAttributes file = fileAttributes();
+            if (file != null)
+            { etag = ETags.ofFile(file.size(), file.lastModifiedTime().toMillis()); }
+
+            else if (fileContent != null)
+            { etag = ETags.of(fileContent); }
+        }
+        return etag;
+    }
+
+    @Override
+    public long getLastModified() {
+        if (lastModified < 0) {
+            BasicFileAttributes file = fileAttributes();
+            if (file != null)
+            { lastModified = file.lastModifiedTime().toMillis(); }
+        }
+        return lastModified;
+    }
+
+    // read once per export, a missing file is reported when it is sent
+    private BasicFileAttributes fileAttributes() {
+        if (attributes == null && path != null) {
+            try
+            { attributes = Files.readAttributes(path, BasicFileAttributes.class); }
+
+            catch (IOException e)
+            { return null; }
+        }
+        return attributes;
+    }
+
+    // -1 when unknown
+    public long getContentLength()
+        throws IOException
+    {
+        if (path != null)
+        { return fileAttributes() != null ? attributes.size() : Files.size(path); }
+
+        if (channel != null)
+        { return channel.size(); }
+
+        return contentLength;
+    }
+
+    // hands count bytes of a path-backed export starting at offset to the container's sendfile,
+    // so the file goes from the page cache to the socket without being copied through the heap;
+    // false when the container does not offer it, the caller then writes the body itself
+    public boolean sendfile(ServletRequest request, long offset, long count) {
+        if (path == null || count < SENDFILE_MIN_SIZE || !Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT)))
+        { return false; }
+
+        request.setAttribute(SENDFILE_FILENAME, path.toAbsolutePath().toString());
+        request.setAttribute(SENDFILE_START, offset);
+        request.setAttribute(SENDFILE_END, offset + count);
+        return true;
+    }
+
+    // writes count bytes starting at offset, files are copied through the servlet stream in
+    // chunks read by FileChannel.transferTo, which is not zero-copy towards a stream
+    public void writeTo(OutputStream out, long offset, long count)
+        throws IOException
+    {
+        if (fileContent != null)
+        { out.write(fileContent, (int) offset, (int) count); }
+
+        else if (channel != null)
+        { transfer(channel, out, offset, count); }
+
+        else if (path != null) {
+            try (FileChannel fileChannel = FileChannel.open(path, StandardOpenOption.READ))
+            { transfer(fileChannel, out, offset, count); }
+        }
+
+        else
+        { copy(stream, out, offset, count); }
+
+        out.flush();
+    }
+
+    private static void transfer(FileChannel source, OutputStream out, long offset, long count)
+        throws IOException
+    {
+        WritableByteChannel target = Channels.newChannel(out);
+        long position = offset;
+        long end = offset + count;
+
+        while (position < end) {
+            long transferred = source.transferTo(position, end - position, target);
+            if (transferred <= 0)
+            { throw new IOException("File shrank while being sent, " + (end - position) + " bytes missing"); }
+
+            position += transferred;
+        }
+    }
+
+    // count is -1 to copy until the end of the stream
+    private static void copy(InputStream in, OutputStream out, long offset, long count)
+        throws IOException
+    {
+        long skipped = 0;
+        while (skipped < offset) {
+            long n = in.skip(offset - skipped);
+            if (n > 0)
+            { skipped += n; }
+
+            else if (in.read() >= 0)
+            { skipped++; }
+
+            else
+            { throw new IOException("Stream ended before offset " + offset); }
+        }
+
+        byte[] buffer = new byte[BUFFER_SIZE];
+        long remaining = count;
+
+        while (remaining != 0) {
+            int read = in.read(buffer, 0, remaining < 0 ? buffer.length : (int) Math.min(buffer.length, remaining));
+            if (read < 0)
+            { break; }
+
+            out.write(buffer, 0, read);
+            if (remaining > 0)
+            { remaining -= read; }
+        }
+    }
+
+    @Override
+    public void close()
+        throws IOException
+    {
+        if (stream != null)
+        { stream.close(); }
+
+        if (channel != null)
+        { channel.close(); }
+    }
+}
@@ -0,0 +1,69 @@
+package response;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonWriter;
+
+// one Gson for the whole application: it is thread-safe and keeps its type adapters cached,
+// results are streamed into the response writer instead of being built as a String
+public final class JsonSerializer {
+
+    private static final Gson GSON = new Gson();
+
+    private JsonSerializer() 
+    { }
+
+    public static Gson getGson() 
+    { return GSON; }
+
+    // the type to serialize results of a handler with, its adapters are built right away;
+    // null when only the runtime class of the result can tell
+    public static Type prepare(Type returnType) {
+        Type type = serializationType(returnType);
+        if (type != null) 
+        { GSON.getAdapter(TypeToken.get(type)); }
+
+        return type;
+    }
+
+    public static void write(Object value, Type type, Writer writer) 
+        throws IOException 
+    {
+        JsonWriter jsonWriter = new JsonWriter(writer);
+
+        if (value == null) 
+        { jsonWriter.nullValue(); }
+
+        // a subclass of the declared type would lose its own fields, only trust the declaration when it matches exactly
+        else if (type != null && (type instanceof ParameterizedType || type == value.getClass())) 
+        { GSON.toJson(value, type, jsonWriter); }
+
+        else 
+        { GSON.toJson(value, value.getClass(), jsonWriter); }
+
+        jsonWriter.flush();
+    }
+
+    private static Type serializationType(Type returnType) {
+        if (returnType instanceof ParameterizedType) {
+            Class<?> raw = (Class<?>) ((ParameterizedType) returnType).getRawType();
+
+            // List<Employee> keeps its element type, which the runtime ArrayList does not
+            return raw.isInterface() ? returnType : null;
+        }
+
+        if (returnType instanceof Class) {
+            Class<?> clazz = (Class<?>) returnType;
+            boolean concrete = !clazz.isInterface() && !Modifier.isAbstract(clazz.getModifiers()) && clazz != Object.class && clazz != void.class;
+            return concrete ? clazz : null;
+        }
+
+        return null;
+    }
+}
@@ -0,0 +1,88 @@
+package routing;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+// path variables of the matched route, kept as offsets into the request URI
+// until a binder asks for a value
+public final class PathVariables {
+
+    private static final String[] NO_NAMES = new String[0];
+
+    private String uri;
+    private String[] names = NO_NAMES;
+    private int[] bounds;
+    private int size;
+
+    void push(int start, int end) {
+        if (bounds == null) 
+        { bounds = new int[8]; }
+
+        else if (size * 2 == bounds.length) {
+            int[] grown = new int[bounds.length * 2];
+            System.arraycopy(bounds, 0, grown, 0, bounds.length);
+            bounds = grown;
+        }
+
+        bounds[size * 2] = start;
+        bounds[size * 2 + 1] = end;
+        size++;
+    }
+
+    int mark() 
+    { return size; }
+
+    void reset(int mark) 
+    { size = mark; }
+
+    void bind(String uri, String[] names) {
+        this.uri = uri;
+        this.names = names;
+    }
+
+    public String get(String name) {
+        for (int i = 0; i < names.length && i < size; i++) {
+            if (names[i].equals(name)) 
+            { return decode(uri, bounds[i * 2], bounds[i * 2 + 1]); }
+        }
+        return null;
+    }
+
+    public int size() 
+    { return Math.min(size, names.length); }
+
+    public String getName(int index) 
+    { return names[index]; }
+
+    public String getValue(int index) 
+    { return decode(uri, bounds[index * 2], bounds[index * 2 + 1]); }
+
+    // request URIs are not decoded by the container, only %XX escapes are handled here
+    private static String decode(String uri, int start, int end) {
+        int percent = uri.indexOf('%', start);
+        if (percent < 0 || percent >= end) 
+        { return uri.substring(start, end); }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(end - start);
+        for (int i = start; i < end; i++) {
+            char c = uri.charAt(i);
+            if (c == '%' && i + 2 < end && hex(uri.charAt(i + 1)) >= 0 && hex(uri.charAt(i + 2)) >= 0) {
+                bytes.write(hex(uri.charAt(i + 1)) * 16 + hex(uri.charAt(i + 2)));
+                i += 2;
+            } 
+            
+            else {
+                byte[] encoded = String.valueOf(c).getBytes(StandardCharsets.UTF_8);
+                bytes.write(encoded, 0, encoded.length);
+            }
+        }
+        return new String(bytes.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    private static int hex(char c) {
+        if (c >= '0' && c <= '9') return c - '0';
+        if (c >= 'a' && c <= 'f') return c - 'a' + 10;
+        if (c >= 'A' && c <= 'F') return c - 'A' + 10;
+        return -1;
+    }
+}
@@ -0,0 +1,80 @@
+package routing;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import exception.BuildException;
+
+// an @AnnotationURL value split into segments: literals, {var}, * (one segment) and a trailing ** (the rest)
+public final class RoutePattern {
+
+    static final String STAR = "*";
+    static final String DOUBLE_STAR = "**";
+
+    private final String value;
+    private final List<String> segments;
+    private final List<String> variableNames;
+
+    private RoutePattern(String value, List<String> segments, List<String> variableNames) {
+        this.value = value;
+        this.segments = segments;
+        this.variableNames = variableNames;
+    }
+
+    public static RoutePattern parse(String value) 
+        throws BuildException 
+    {
+        if (value == null) 
+        { throw new BuildException("Route pattern cannot be null"); }
+
+        String path = value.startsWith("/") ? value.substring(1) : value;
+        List<String> segments = new ArrayList<>();
+        List<String> variableNames = new ArrayList<>();
+
+        int start = 0;
+        while (true) {
+            int slash = path.indexOf('/', start);
+            String segment = slash < 0 ? path.substring(start) : path.substring(start, slash);
+
+            if (isVariable(segment)) {
+                String name = segment.substring(1, segment.length() - 1);
+                if (name.isEmpty() || variableNames.contains(name)) 
+                { throw new BuildException("Invalid or duplicate path variable '" + segment + "' in route " + value); }
+                
+                variableNames.add(name);
+            } 
+            
+            else if (segment.indexOf('{') >= 0 || segment.indexOf('}') >= 0) 
+            { throw new BuildException("Path variables must span a whole segment in route " + value); }
+            
+            else if (segment.equals(DOUBLE_STAR) && slash >= 0) 
+            { throw new BuildException("'**' is only allowed as the last segment in route " + value); }
+
+            segments.add(segment);
+
+            if (slash < 0) 
+            { break; }
+
+            start = slash + 1;
+        }
+
+        return new RoutePattern(value, Collections.unmodifiableList(segments), Collections.unmodifiableList(variableNames));
+    }
+
+    static boolean isVariable(String segment) 
+    { return segment.length() >= 2 && segment.charAt(0) == '{' && segment.charAt(segment.length() - 1) == '}'; }
+
+    public String getValue() 
+    { return value; }
+
+    public List<String> getSegments() 
+    { return segments; }
+
+    public List<String> getVariableNames() 
+    { return variableNames; }
+
+    @Override
+    public String toString() 
+    { return value; }
+}
@@ -0,0 +1,215 @@
+package routing;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import exception.BuildException;
+import mapping.Mapping;
+
+// segment trie built from the @AnnotationURL patterns. Matching walks the request URI in place:
+// literal children sit in an open-addressing table probed with a hash computed over the segment
+// characters, so a lookup allocates nothing. Priority per segment: literal, {var}, *, then **.
+public final class Router {
+
+    private final Node root = new Node();
+    private boolean compiled;
+
+    public void add(String pattern, Mapping mapping) 
+        throws BuildException 
+    {
+        if (compiled) 
+        { throw new IllegalStateException("Routes cannot be added after the router is compiled"); }
+
+        RoutePattern routePattern = RoutePattern.parse(pattern);
+        Node node = root;
+
+        for (String segment : routePattern.getSegments()) {
+            if (segment.equals(RoutePattern.DOUBLE_STAR)) {
+                if (node.tailRoute != null) 
+                { throw new BuildException("Route " + pattern + " conflicts with " + node.tailRoute.pattern); }
+
+                node.tailRoute = new Route(routePattern, mapping);
+                return;
+            }
+
+            node = node.child(segment);
+        }
+
+        if (node.route != null) 
+        { throw new BuildException("Route " + pattern + " conflicts with " + node.route.pattern); }
+
+        node.route = new Route(routePattern, mapping);
+    }
+
+    public static Router build(Map<String, Mapping> mappings) 
+        throws BuildException 
+    {
+        Router router = new Router();
+        for (Map.Entry<String, Mapping> entry : mappings.entrySet()) 
+        { router.add(entry.getKey(), entry.getValue()); }
+
+        router.compile();
+        return router;
+    }
+
+    public void compile() {
+        root.compile();
+        compiled = true;
+    }
+
+    // from is the index of the '/' that starts the application path inside uri
+    public Mapping match(String uri, int from, PathVariables variables) {
+        if (from < 0 || from >= uri.length() || uri.charAt(from) != '/') 
+        { return null; }
+
+        // path parameters such as ;jsessionid end the path
+        int end = uri.indexOf(';', from);
+        if (end < 0) 
+        { end = uri.length(); }
+
+        Route route = root.match(uri, from + 1, end, variables);
+        if (route == null) 
+        { return null; }
+
+        variables.bind(uri, route.variableNames);
+        return route.mapping;
+    }
+
+    private static final class Route {
+
+        private final String pattern;
+        private final String[] variableNames;
+        private final Mapping mapping;
+
+        Route(RoutePattern pattern, Mapping mapping) {
+            List<String> names = pattern.getVariableNames();
+            this.pattern = pattern.getValue();
+            this.variableNames = names.toArray(new String[0]);
+            this.mapping = mapping;
+        }
+    }
+
+    private static final class Node {
+
+        // build time
+        private Map<String, Node> literals = new LinkedHashMap<>();
+
+        // compiled literal table
+        private String[] keys;
+        private Node[] nodes;
+        private int mask;
+
+        private Node variable;
+        private Node star;
+        private Route route;
+        private Route tailRoute;
+
+        Node child(String segment) {
+            if (RoutePattern.isVariable(segment)) {
+                if (variable == null) 
+                { variable = new Node(); }
+                return variable;
+            }
+
+            if (segment.equals(RoutePattern.STAR)) {
+                if (star == null) 
+                { star = new Node(); }
+                return star;
+            }
+
+            Node node = literals.get(segment);
+            if (node == null) {
+                node = new Node();
+                literals.put(segment, node);
+            }
+            return node;
+        }
+
+        void compile() {
+            int capacity = 2;
+            while (capacity < literals.size() * 2) 
+            { capacity <<= 1; }
+
+            keys = new String[capacity];
+            nodes = new Node[capacity];
+            mask = capacity - 1;
+
+            for (Map.Entry<String, Node> entry : literals.entrySet()) {
+                String key = entry.getKey();
+                int index = spread(key.hashCode()) & mask;
+                while (keys[index] != null) 
+                { index = (index + 1) & mask; }
+
+                keys[index] = key;
+                nodes[index] = entry.getValue();
+                entry.getValue().compile();
+            }
+
+            literals = null;
+
+            if (variable != null) variable.compile();
+            if (star != null) star.compile();
+        }
+
+        Route match(String uri, int start, int end, PathVariables variables) {
+            int segmentEnd = uri.indexOf('/', start);
+            if (segmentEnd < 0 || segmentEnd > end) 
+            { segmentEnd = end; }
+
+            boolean last = segmentEnd == end;
+
+            Node literal = findLiteral(uri, start, segmentEnd);
+            if (literal != null) {
+                Route route = last ? literal.terminal() : literal.match(uri, segmentEnd + 1, end, variables);
+                if (route != null) 
+                { return route; }
+            }
+
+            boolean empty = segmentEnd == start;
+
+            if (variable != null && !empty) {
+                int mark = variables.mark();
+                variables.push(start, segmentEnd);
+
+                Route route = last ? variable.terminal() : variable.match(uri, segmentEnd + 1, end, variables);
+                if (route != null) 
+                { return route; }
+
+                variables.reset(mark);
+            }
+
+            if (star != null && !empty) {
+                Route route = last ? star.terminal() : star.match(uri, segmentEnd + 1, end, variables);
+                if (route != null) 
+                { return route; }
+            }
+
+            return tailRoute;
+        }
+
+        // a trailing ** also matches an empty rest: /files/** matches /files
+        private Route terminal() 
+        { return route != null ? route : tailRoute; }
+
+        private Node findLiteral(String uri, int start, int end) {
+            int length = end - start;
+            int hash = 0;
+            for (int i = start; i < end; i++) 
+            { hash = 31 * hash + uri.charAt(i); }
+
+            int index = spread(hash) & mask;
+            String key;
+            while ((key = keys[index]) != null) {
+                if (key.length() == length && key.regionMatches(0, uri, start, length)) 
+                { return nodes[index]; }
+
+                index = (index + 1) & mask;
+            }
+            return null;
+        }
+
+        private static int spread(int hash) 
+        { return hash ^ (hash >>> 16); }
+    }
+}
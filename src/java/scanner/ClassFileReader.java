@@ -0,0 +1,187 @@
+package scanner;
+
+import java.nio.charset.StandardCharsets;
+
+// reads just enough of a class file to tell whether the class carries a given runtime
+// annotation, so that candidate classes are never loaded nor initialized
+final class ClassFileReader {
+
+    private static final byte[] RUNTIME_VISIBLE_ANNOTATIONS = "RuntimeVisibleAnnotations".getBytes(StandardCharsets.US_ASCII);
+
+    private final byte[] bytes;
+    private int position;
+
+    // offsets of the utf8 constants, 0 for other entries
+    private int[] utf8Offsets;
+    private int[] classNameIndexes;
+
+    private ClassFileReader(byte[] bytes) {
+        this.bytes = bytes;
+    }
+
+    // returns the binary class name when the class is annotated with the descriptor, null otherwise
+    static String annotatedClassName(byte[] classFile, String annotationDescriptor) {
+        try 
+        { return new ClassFileReader(classFile).read(annotationDescriptor.getBytes(StandardCharsets.US_ASCII)); } 
+        
+        catch (ArrayIndexOutOfBoundsException e) 
+        { return null; }
+    }
+
+    private String read(byte[] descriptor) {
+        if (u4() != 0xCAFEBABE) 
+        { return null; }
+
+        position += 4;
+        int count = u2();
+        utf8Offsets = new int[count];
+        classNameIndexes = new int[count];
+
+        // most classes are rejected here: without the descriptor in the pool the annotation cannot be present
+        if (!readConstantPool(count, descriptor)) 
+        { return null; }
+
+        position += 2;
+        int thisClass = u2();
+        position += 2;
+        int interfaces = u2();
+        position += 2 * interfaces;
+
+        skipMembers();
+        skipMembers();
+
+        int attributes = u2();
+        for (int i = 0; i < attributes; i++) {
+            int name = u2();
+            int length = u4();
+            int end = position + length;
+
+            if (utf8Equals(name, RUNTIME_VISIBLE_ANNOTATIONS) && hasAnnotation(descriptor)) 
+            { return utf8(classNameIndexes[thisClass]).replace('/', '.'); }
+
+            position = end;
+        }
+        return null;
+    }
+
+    private boolean readConstantPool(int count, byte[] descriptor) {
+        boolean found = false;
+
+        for (int i = 1; i < count; i++) {
+            int tag = bytes[position++] & 0xFF;
+            switch (tag) {
+                case 1:
+                    int length = u2();
+                    utf8Offsets[i] = position;
+                    if (!found && length == descriptor.length && regionEquals(position, descriptor)) 
+                    { found = true; }
+                    position += length;
+                    break;
+                case 7:
+                    classNameIndexes[i] = u2();
+                    break;
+                case 8: case 16: case 19: case 20:
+                    position += 2;
+                    break;
+                case 15:
+                    position += 3;
+                    break;
+                case 3: case 4: case 9: case 10: case 11: case 12: case 17: case 18:
+                    position += 4;
+                    break;
+                case 5: case 6:
+                    position += 8;
+                    i++;
+                    break;
+                default:
+                    throw new ArrayIndexOutOfBoundsException("Unknown constant pool tag " + tag);
+            }
+        }
+        return found;
+    }
+
+    private void skipMembers() {
+        int count = u2();
+        for (int i = 0; i < count; i++) {
+            position += 6;
+            int attributes = u2();
+            for (int j = 0; j < attributes; j++) {
+                position += 2;
+                int length = u4();
+                position += length;
+            }
+        }
+    }
+
+    private boolean hasAnnotation(byte[] descriptor) {
+        int count = u2();
+        for (int i = 0; i < count; i++) {
+            int type = u2();
+            if (utf8Equals(type, descriptor)) 
+            { return true; }
+
+            skipAnnotationValues();
+        }
+        return false;
+    }
+
+    private void skipAnnotationValues() {
+        int pairs = u2();
+        for (int i = 0; i < pairs; i++) {
+            position += 2;
+            skipElementValue();
+        }
+    }
+
+    private void skipElementValue() {
+        int tag = bytes[position++] & 0xFF;
+        switch (tag) {
+            case 'e':
+                position += 4;
+                break;
+            case '@':
+                position += 2;
+                skipAnnotationValues();
+                break;
+            case '[':
+                int count = u2();
+                for (int i = 0; i < count; i++) 
+                { skipElementValue(); }
+                break;
+            default:
+                position += 2;
+        }
+    }
+
+    private boolean utf8Equals(int index, byte[] expected) {
+        int offset = utf8Offsets[index];
+        return offset > 0 && (((bytes[offset - 2] & 0xFF) << 8) | (bytes[offset - 1] & 0xFF)) == expected.length && regionEquals(offset, expected);
+    }
+
+    private boolean regionEquals(int offset, byte[] expected) {
+        for (int i = 0; i < expected.length; i++) {
+            if (bytes[offset + i] != expected[i]) 
+            { return false; }
+        }
+        return true;
+    }
+
+    // modified UTF-8 only differs from UTF-8 for NUL and supplementary characters
+    private String utf8(int index) {
+        int offset = utf8Offsets[index];
+        int length = ((bytes[offset - 2] & 0xFF) << 8) | (bytes[offset - 1] & 0xFF);
+        return new String(bytes, offset, length, StandardCharsets.UTF_8);
+    }
+
+    private int u2() {
+        int value = ((bytes[position] & 0xFF) << 8) | (bytes[position + 1] & 0xFF);
+        position += 2;
+        return value;
+    }
+
+    private int u4() {
+        int value = ((bytes[position] & 0xFF) << 24) | ((bytes[position + 1] & 0xFF) << 16) | ((bytes[position + 2] & 0xFF) << 8) | (bytes[position + 3] & 0xFF);
+        position += 4;
+        return value;
+    }
+}
@@ -0,0 +1,221 @@
+package scanner;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.annotation.Annotation;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+
+import logging.Logger;
+
+// finds the classes of a package carrying an annotation by reading class files from exploded
+// directories and jars (WEB-INF/classes and WEB-INF/lib) without loading them;
+// classpath roots are scanned in parallel
+class ClasspathScanner {
+
+    private static final Logger log = Logger.getLogger(ClasspathScanner.class);
+
+    private final ClassLoader classLoader;
+
+    ClasspathScanner(ClassLoader classLoader) {
+        this.classLoader = classLoader;
+    }
+
+    List<String> scan(String packageName, Class<? extends Annotation> annotation) 
+        throws IOException 
+    {
+        String path = packageName.replace('.', '/');
+        String descriptor = "L" + annotation.getName().replace('.', '/') + ";";
+        List<Root> roots = findRoots(path);
+
+        if (roots.isEmpty()) 
+        { return Collections.emptyList(); }
+
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(roots.size(), Runtime.getRuntime().availableProcessors()));
+        try {
+            List<Future<List<String>>> futures = new ArrayList<>();
+            for (Root root : roots) 
+            { futures.add(executor.submit(() -> root.scan(path, descriptor))); }
+
+            Set<String> names = new LinkedHashSet<>();
+            for (Future<List<String>> future : futures) 
+            { names.addAll(future.get()); }
+
+            List<String> sorted = new ArrayList<>(names);
+            Collections.sort(sorted);
+            return sorted;
+        } 
+        
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Classpath scanning interrupted", e);
+        } 
+        
+        catch (java.util.concurrent.ExecutionException e) 
+        { throw new IOException("Classpath scanning failed: " + e.getCause().getMessage(), e.getCause()); } 
+        
+        finally 
+        { executor.shutdownNow(); }
+    }
+
+    private List<Root> findRoots(String path) 
+        throws IOException 
+    {
+        Set<String> seen = new LinkedHashSet<>();
+        List<Root> roots = new ArrayList<>();
+
+        Enumeration<URL> resources = classLoader.getResources(path);
+        while (resources.hasMoreElements()) 
+        { addRoot(resources.nextElement(), path, seen, roots); }
+
+        // jars built without directory entries are invisible to getResources, look at the loader's jars too
+        for (ClassLoader loader = classLoader; loader != null; loader = loader.getParent()) {
+            if (loader instanceof URLClassLoader) {
+                for (URL url : ((URLClassLoader) loader).getURLs()) {
+                    if (url.getPath().endsWith(".jar")) 
+                    { addRoot(url, null, seen, roots); }
+                }
+            }
+        }
+
+        return roots;
+    }
+
+    private void addRoot(URL url, String path, Set<String> seen, List<Root> roots) {
+        try {
+            String protocol = url.getProtocol();
+            String spec = url.toString();
+
+            if (protocol.equals("jar")) {
+                String jarPath = spec.substring("jar:".length(), spec.indexOf("!/"));
+                File jar = new File(new URL(jarPath).toURI());
+                if (seen.add(jar.getAbsolutePath())) 
+                { roots.add(new JarRoot(jar)); }
+            } 
+            
+            else if (protocol.equals("file")) {
+                File file = new File(url.toURI());
+                if (!seen.add(file.getAbsolutePath())) 
+                { return; }
+
+                if (file.isDirectory() && path != null) 
+                { roots.add(new DirectoryRoot(file)); }
+                
+                else if (file.isFile()) 
+                { roots.add(new JarRoot(file)); }
+            } 
+            
+            else 
+            { log.warn("Unsupported classpath resource, skipped: " + spec); }
+        } 
+        
+        catch (URISyntaxException | IOException | IllegalArgumentException e) 
+        { log.warn("Cannot read classpath resource " + url + ": " + e.getMessage()); }
+    }
+
+    private static byte[] readFully(InputStream in) 
+        throws IOException 
+    {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(4096);
+        byte[] buffer = new byte[8192];
+        int read;
+        while ((read = in.read(buffer)) != -1) 
+        { out.write(buffer, 0, read); }
+        
+        return out.toByteArray();
+    }
+
+    private static boolean isCandidate(String name) {
+        return name.endsWith(".class") && !name.endsWith("module-info.class") && !name.endsWith("package-info.class");
+    }
+
+    private interface Root {
+        List<String> scan(String path, String descriptor) throws IOException;
+    }
+
+    // the directory of the package itself, sub-packages included
+    private static final class DirectoryRoot implements Root {
+
+        private final File directory;
+
+        DirectoryRoot(File directory) 
+        { this.directory = directory; }
+
+        @Override
+        public List<String> scan(String path, String descriptor) 
+            throws IOException 
+        {
+            List<String> names = new ArrayList<>();
+            scan(directory, descriptor, names);
+            return names;
+        }
+
+        private void scan(File current, String descriptor, List<String> names) 
+            throws IOException 
+        {
+            File[] files = current.listFiles();
+            if (files == null) 
+            { return; }
+
+            for (File file : files) {
+                if (file.isDirectory()) 
+                { scan(file, descriptor, names); }
+                
+                else if (isCandidate(file.getName())) {
+                    String name = ClassFileReader.annotatedClassName(Files.readAllBytes(file.toPath()), descriptor);
+                    if (name != null) 
+                    { names.add(name); }
+                }
+            }
+        }
+    }
+
+    private static final class JarRoot implements Root {
+
+        private final File file;
+
+        JarRoot(File file) 
+        { this.file = file; }
+
+        @Override
+        public List<String> scan(String path, String descriptor) 
+            throws IOException 
+        {
+            List<String> names = new ArrayList<>();
+            String prefix = path + "/";
+
+            try (JarFile jar = new JarFile(file)) {
+                Enumeration<JarEntry> entries = jar.entries();
+                while (entries.hasMoreElements()) {
+                    JarEntry entry = entries.nextElement();
+                    String entryName = entry.getName();
+
+                    if (entry.isDirectory() || !entryName.startsWith(prefix) || !isCandidate(entryName)) 
+                    { continue; }
+
+                    try (InputStream in = jar.getInputStream(entry)) {
+                        String name = ClassFileReader.annotatedClassName(readFully(in), descriptor);
+                        if (name != null) 
+                        { names.add(name); }
+                    }
+                }
+            }
+            return names;
+        }
+    }
+}
@@ -1,12 +1,9 @@
 package scanner;
 
-import java.io.File;
 import java.io.IOException;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Method;
-import java.net.URL;
 import java.util.ArrayList;
-import java.util.Enumeration;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -18,14 +15,22 @@ import annotation.AnnotationRestAPI;
 import annotation.AnnotationURL;
 import exception.BuildException;
 import exception.RequestException;
+import invoker.Instantiator;
+import invoker.MethodInvoker;
+import logging.Logger;
+import mapping.HandlerMethod;
 import mapping.Mapping;
 import modelview.ModelView;
+import registry.RouteDefinition;
+import registry.RouteRegistry;
 import response.FileExportResult;
 import verb.VerbAction;
 
 
 public class ControllerScanner {
 
+    private static final Logger log = Logger.getLogger(ControllerScanner.class);
+
     public List<Class<?>> findClasses(String packageName, Class<? extends Annotation> classAnnotation) 
         throws ClassNotFoundException, IOException, BuildException 
     {
@@ -34,52 +39,22 @@ public class ControllerScanner {
 
         assert classLoader != null;
 
-        String path = packageName.replace('.', '/');
-        Enumeration<URL> resources = classLoader.getResources(path);
-        List<File> dirs = new ArrayList<>();
-
-        while (resources.hasMoreElements()) {
-            URL resource = resources.nextElement();
-            dirs.add(new File(resource.getFile()));
+        // candidates are picked from their class files, only matches get loaded and none is initialized
+        for (String className : new ClasspathScanner(classLoader).scan(packageName, classAnnotation)) {
+            Class<?> clazz = Class.forName(className, false, classLoader);
+            if (clazz.isAnnotationPresent(classAnnotation)) 
+            { controllers.add(clazz); }
         }
 
-        for (File directory : dirs)  
-        { controllers.addAll(findClasses(directory, packageName, classAnnotation)); }
-
         if (controllers.isEmpty()) 
         { throw new BuildException("No controller found in the specified package: " + packageName); }
 
+        log.debug("Found {} controllers in {}", controllers.size(), packageName);
         return controllers;
     }
 
-    private List<Class<?>> findClasses(File directory, String packageName, Class<? extends Annotation> classAnnotation) 
-        throws ClassNotFoundException 
-    {
-        List<Class<?>> classes = new ArrayList<>();
-        if (!directory.exists()) 
-        { return classes; }
-
-        File[] files = directory.listFiles();
-
-        // using assert keywords to avoid if statement
-        assert files != null : "files are NULL";
-
-        for (File file : files) {
-            if (file.isDirectory()) 
-            { classes.addAll(findClasses(file, packageName + "." + file.getName(), classAnnotation)); } 
-
-            else if (file.getName().endsWith(".class")) {
-                Class<?> clazz = Class.forName(packageName + '.' + file.getName().substring(0, file.getName().length() - 6));
-                if (clazz.isAnnotationPresent(classAnnotation)) 
-                { classes.add(clazz); }
-            }
-        }
-
-        return classes;
-    }
-
     public void map(HashMap<String, Mapping> hash, List<Class<?>> controllers) 
-        throws RequestException 
+        throws RequestException, BuildException 
     {
         try {
             for (Class<?> controller : controllers) {
@@ -87,59 +62,113 @@ public class ControllerScanner {
 
                 for (Method method : methods) {
                     AnnotationURL urlAnnotation = method.getAnnotation(AnnotationURL.class);
-                    if (urlAnnotation != null) {
-                        String className = controller.getName();
-                        String url = urlAnnotation.value();
-                        Set<VerbAction> verbActions = new HashSet<>();
-
-                        // handle http verbs by checking annotations
-                        if (method.isAnnotationPresent(AnnotationPostMapping.class)) 
-                        { verbActions.add(new VerbAction("POST", method.getName())); }
-
-                        if (method.isAnnotationPresent(AnnotationGetMapping.class)) 
-                        { verbActions.add(new VerbAction("GET", method.getName())); }
-
-                        // default GET 
-                        if (verbActions.isEmpty()) 
-                        { verbActions.add(new VerbAction("GET", method.getName())); }
-
-                        Class<?> returnType = method.getReturnType();
-                        boolean isRestApi = method.isAnnotationPresent(AnnotationRestAPI.class);
-                        boolean isValidReturnType =
-                            returnType.equals(String.class) ||
-                            returnType.equals(ModelView.class) ||
-                            returnType.equals(FileExportResult.class); 
-
-                        if (!isRestApi && !isValidReturnType)
-                        {
-                            throw new RequestException(
-                                "The method " + method.getName() + " in " + className +
-                                " has an invalid return type for a non-REST API method. Allowed types: String, ModelView, FileExportResult. Returned type: " + returnType.getName());
-                        }
-
-                        // check if a Mapping already exists for this url
-                        Mapping existingMapping = hash.get(url);
-
-                        // add new verb actions to the existing mapping
-                        if (existingMapping != null) 
-                        { existingMapping.getVerbActions().addAll(verbActions); } 
-                        
-                        else {
-                            Mapping mapping = new Mapping(className, verbActions);
-                            hash.put(url, mapping);
-                        }
-                    }
+                    if (urlAnnotation != null) 
+                    { mapMethod(hash, method, urlAnnotation.value(), verbs(method), null, null); }
                 }
             }
         } 
         
-        catch (Exception e) {
-            e.printStackTrace();
-            
-            if (e instanceof RequestException) 
-            { throw (RequestException) e; }
-            
-            throw new RuntimeException("Controller mapping error", e);
+        catch (Exception e) 
+        { throw mappingFailure(e); }
+    }
+
+    // maps the routes of the generated registry that belong to the package, returns their count;
+    // the registry replaces the classpath scan, the verb annotations and the reflective calls, but
+    // each route's Method is still looked up once, its parameter and constraint annotations being
+    // what the binders, validation plans and policies of the HandlerMethod are built from
+    public int map(HashMap<String, Mapping> hash, RouteRegistry registry, String packageName) 
+        throws RequestException, BuildException 
+    {
+        int count = 0;
+        String prefix = packageName + ".";
+
+        try {
+            for (RouteDefinition route : registry.getRoutes()) {
+                Class<?> controller = route.getControllerClass();
+                if (!controller.getName().startsWith(prefix)) 
+                { continue; }
+
+                Method method;
+                try 
+                { method = controller.getDeclaredMethod(route.getMethodName(), route.getParameterTypes()); } 
+                
+                catch (NoSuchMethodException e) 
+                { throw new BuildException("The generated route registry is out of date, " + controller.getName() + "." + route.getMethodName() + " no longer exists, rebuild the application"); }
+
+                mapMethod(hash, method, route.getUrl(), route.getVerbs(), route.getInvoker(), route.getInstantiator());
+                count++;
+            }
+        } 
+        
+        catch (Exception e) 
+        { throw mappingFailure(e); }
+
+        return count;
+    }
+
+    // handle http verbs by checking annotations, GET by default
+    private static String[] verbs(Method method) {
+        boolean post = method.isAnnotationPresent(AnnotationPostMapping.class);
+        boolean get = method.isAnnotationPresent(AnnotationGetMapping.class) || !post;
+
+        if (post && get) 
+        { return new String[] { "POST", "GET" }; }
+
+        return new String[] { post ? "POST" : "GET" };
+    }
+
+    private void mapMethod(HashMap<String, Mapping> hash, Method method, String url, String[] verbs, MethodInvoker invoker, Instantiator instantiator) 
+        throws Exception 
+    {
+        String className = method.getDeclaringClass().getName();
+        Set<VerbAction> verbActions = new HashSet<>();
+
+        for (String verb : verbs) 
+        { verbActions.add(new VerbAction(verb, method.getName())); }
+
+        // async handlers are checked on the value their CompletionStage produces
+        Class<?> returnType = HandlerMethod.resultClass(method);
+        boolean isRestApi = method.isAnnotationPresent(AnnotationRestAPI.class);
+        boolean isValidReturnType =
+            returnType.equals(String.class) ||
+            returnType.equals(ModelView.class) ||
+            returnType.equals(FileExportResult.class); 
+
+        if (!isRestApi && !isValidReturnType)
+        {
+            throw new RequestException(
+                "The method " + method.getName() + " in " + className +
+                " has an invalid return type for a non-REST API method. Allowed types: String, ModelView, FileExportResult, or a CompletionStage of one of them. Returned type: " + method.getGenericReturnType().getTypeName());
+        }
+
+        // check if a Mapping already exists for this url
+        Mapping existingMapping = hash.get(url);
+
+        // add new verb actions to the existing mapping
+        if (existingMapping != null) 
+        { existingMapping.getVerbActions().addAll(verbActions); } 
+        
+        else {
+            existingMapping = new Mapping(className, verbActions);
+            hash.put(url, existingMapping);
         }
-    }        
-}
\ No newline at end of file
+
+        // resolve the handler once per verb, dispatch never searches methods again
+        for (VerbAction verbAction : verbActions) 
+        { existingMapping.addHandler(new HandlerMethod(verbAction.getVerb(), url, method, invoker, instantiator)); }
+    }
+
+    private static RuntimeException mappingFailure(Exception e) 
+        throws RequestException, BuildException 
+    {
+        log.error("Controller mapping failed", e);
+        
+        if (e instanceof RequestException) 
+        { throw (RequestException) e; }
+
+        if (e instanceof BuildException) 
+        { throw (BuildException) e; }
+        
+        return new RuntimeException("Controller mapping error", e);
+    }
+}
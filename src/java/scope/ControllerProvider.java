@@ -0,0 +1,8 @@
+package scope;
+
+import session.Session;
+
+public interface ControllerProvider {
+    Object acquire(Session session) throws Exception;
+    void release(Object controller);
+}
@@ -0,0 +1,74 @@
+package scope;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import annotation.AnnotationScope;
+import exception.BuildException;
+import invoker.FieldAccessor;
+import invoker.Instantiator;
+import invoker.Invokers;
+import session.Session;
+
+// one provider per controller class, shared by all of its handlers
+public final class ControllerProviders {
+
+    private static final Map<Class<?>, ControllerProvider> providers = new ConcurrentHashMap<>();
+
+    private ControllerProviders() 
+    { }
+
+    public static ControllerProvider forClass(Class<?> controllerClass) 
+        throws BuildException 
+    { return forClass(controllerClass, null); }
+
+    // instantiator is a generated constructor call, null to compile one from the class
+    public static ControllerProvider forClass(Class<?> controllerClass, Instantiator instantiator) 
+        throws BuildException 
+    {
+        ControllerProvider provider = providers.get(controllerClass);
+        if (provider == null) {
+            providers.putIfAbsent(controllerClass, create(controllerClass, instantiator != null ? instantiator : Invokers.forClass(controllerClass)));
+            provider = providers.get(controllerClass);
+        }
+        return provider;
+    }
+
+    private static ControllerProvider create(Class<?> controllerClass, Instantiator instantiator) 
+        throws BuildException 
+    {
+        AnnotationScope scope = controllerClass.getAnnotation(AnnotationScope.class);
+        ControllerScope value = scope != null ? scope.value() : ControllerScope.REQUEST;
+
+        List<FieldAccessor> sessionFields = new ArrayList<>();
+        for (Field field : controllerClass.getDeclaredFields()) {
+            if (field.getType().equals(Session.class) && !Modifier.isStatic(field.getModifiers())) 
+            { sessionFields.add(FieldAccessor.of(field)); }
+        }
+
+        // a shared instance cannot hold the session of one request
+        if (value != ControllerScope.REQUEST && !sessionFields.isEmpty()) {
+            throw new BuildException(
+                "The " + value + " controller " + controllerClass.getName() + " cannot declare Session fields, " + 
+                "take Session as a method parameter or use RequestContext.current().getSession()");
+        }
+
+        switch (value) {
+            case SINGLETON:
+                return new SingletonProvider(instantiator);
+
+            case POOLED:
+                if (scope.poolSize() < 1) 
+                { throw new BuildException("The pool size of " + controllerClass.getName() + " must be positive"); }
+
+                return new PooledProvider(instantiator, scope.poolSize(), scope.acquireTimeoutMillis());
+
+            default:
+                return new RequestScopedProvider(instantiator, sessionFields.toArray(new FieldAccessor[0]));
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package scope;
+
+public enum ControllerScope {
+    REQUEST,
+    SINGLETON,
+    POOLED
+}
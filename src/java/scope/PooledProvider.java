@@ -0,0 +1,63 @@
+package scope;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import invoker.Instantiator;
+import session.Session;
+
+// bounded pool: instances are created on demand up to poolSize, then requests wait for a release
+public class PooledProvider implements ControllerProvider {
+
+    private final Instantiator instantiator;
+    private final int poolSize;
+    private final long acquireTimeoutMillis;
+    private final BlockingQueue<Object> idle;
+    private final AtomicInteger created = new AtomicInteger();
+
+    public PooledProvider(Instantiator instantiator, int poolSize, long acquireTimeoutMillis) {
+        this.instantiator = instantiator;
+        this.poolSize = poolSize;
+        this.acquireTimeoutMillis = acquireTimeoutMillis;
+        this.idle = new ArrayBlockingQueue<>(poolSize);
+    }
+
+    @Override
+    public Object acquire(Session session) 
+        throws Exception 
+    {
+        Object controller = idle.poll();
+        if (controller != null) 
+        { return controller; }
+
+        while (true) {
+            int count = created.get();
+            if (count >= poolSize) 
+            { break; }
+
+            if (created.compareAndSet(count, count + 1)) {
+                try 
+                { return instantiator.newInstance(); } 
+                
+                catch (Exception e) {
+                    created.decrementAndGet();
+                    throw e;
+                }
+            }
+        }
+
+        controller = idle.poll(acquireTimeoutMillis, TimeUnit.MILLISECONDS);
+        if (controller == null) 
+        { throw new IllegalStateException("Controller pool exhausted after " + acquireTimeoutMillis + " ms (pool size " + poolSize + ")"); }
+
+        return controller;
+    }
+
+    @Override
+    public void release(Object controller) {
+        if (controller != null) 
+        { idle.offer(controller); }
+    }
+}
@@ -0,0 +1,32 @@
+package scope;
+
+import invoker.FieldAccessor;
+import invoker.Instantiator;
+import session.Session;
+
+// a new controller per request, Session fields are injected as before
+public class RequestScopedProvider implements ControllerProvider {
+
+    private final Instantiator instantiator;
+    private final FieldAccessor[] sessionFields;
+
+    public RequestScopedProvider(Instantiator instantiator, FieldAccessor[] sessionFields) {
+        this.instantiator = instantiator;
+        this.sessionFields = sessionFields;
+    }
+
+    @Override
+    public Object acquire(Session session) 
+        throws Exception 
+    {
+        Object controller = instantiator.newInstance();
+        for (FieldAccessor field : sessionFields) 
+        { field.set(controller, session); }
+
+        return controller;
+    }
+
+    @Override
+    public void release(Object controller) 
+    { }
+}
@@ -0,0 +1,36 @@
+package scope;
+
+import invoker.Instantiator;
+import session.Session;
+
+// one controller shared by every request, built on first use; it must be thread-safe
+public class SingletonProvider implements ControllerProvider {
+
+    private final Instantiator instantiator;
+    private volatile Object instance;
+
+    public SingletonProvider(Instantiator instantiator) {
+        this.instantiator = instantiator;
+    }
+
+    @Override
+    public Object acquire(Session session) 
+        throws Exception 
+    {
+        Object controller = instance;
+        if (controller == null) {
+            synchronized (this) {
+                controller = instance;
+                if (controller == null) {
+                    controller = instantiator.newInstance();
+                    instance = controller;
+                }
+            }
+        }
+        return controller;
+    }
+
+    @Override
+    public void release(Object controller) 
+    { }
+}
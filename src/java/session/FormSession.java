@@ -1,49 +1,27 @@
 package session;
 
-import java.lang.reflect.Method;
-
-import javax.servlet.http.HttpServletRequest;
-
-import annotation.AnnotationGetMapping;
-import modelview.ModelView;
-
+// remembers the last form page of a session as the id of its route, a short string that
+// is serializable and overwritten by each new form, so a session holds one whatever the
+// number of forms opened; the view is rebuilt through the route's handler when needed
 public class FormSession {
 
-    private Method lastFormMethod;
-    private Object lastControllerInstance;
+    static final String FORM_ROUTE = "form_route";
+
     private Session session;
 
     public FormSession(Session session) {
         this.session = session;
     }
 
-    public ModelView invokeLastFormMethod() 
-        throws Exception 
-    {
-        try {
-            if (session.get("stored_method") != null && session.get("stored_controller") != null) {
-                this.lastFormMethod = (Method) session.get("stored_method");
-                this.lastControllerInstance = (Object) session.get("stored_controller");
-
-                this.lastFormMethod.setAccessible(true);
-                ModelView mv = (ModelView) this.lastFormMethod.invoke(this.lastControllerInstance);
-                System.out.println("invoked method from FormSession: " + mv.getViewURL());
-
-                return mv;
-            }
-
-            throw new IllegalStateException("No stored form method found");
-        } 
-        
-        catch (Exception e) {
-            throw e;
-        }
-    }    
+    // null when no form page was displayed in this session
+    public String getLastFormRoute() {
+        Object route = session.get(FORM_ROUTE);
+        return route instanceof String ? (String) route : null;
+    }
 
-    public void storeFormMethod(Method method, Object controllerInstance) {   
-        if (method != null && controllerInstance != null) {
-            session.add("stored_method", method);
-            session.add("stored_controller", controllerInstance);
-        }   
+    // an unchanged route is not written again, so the session is not marked for replication
+    public void storeFormRoute(String routeId) {
+        if (routeId != null && !routeId.equals(session.get(FORM_ROUTE))) 
+        { session.add(FORM_ROUTE, routeId); }
     }
-}
\ No newline at end of file
+}
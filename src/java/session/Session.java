@@ -3,13 +3,15 @@ package session;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpSession;
 
+// the HttpSession is looked up on first use and only created by the first write,
+// so requests that never store anything leave no session behind
 public class Session {
     
     private HttpServletRequest request;
     private HttpSession session;
 
     public Session(HttpServletRequest request) {
-        this.session = request.getSession();
+        this.request = request;
     }
 
     public void login(Class<?> clazz) {
@@ -23,14 +25,37 @@ public class Session {
     }
 
     public void add(String key, Object value) 
-    { this.session.setAttribute(key, value); }
+    { this.create().setAttribute(key, value); }
 
     public void add(String key, Object[] value) 
-    { this.session.setAttribute(key, value); }
+    { this.create().setAttribute(key, value); }
 
-    public Object get(String key) 
-    { return this.session.getAttribute(key); }
+    public Object get(String key) {
+        HttpSession existing = this.existing();
+        return existing != null ? existing.getAttribute(key) : null;
+    }
+
+    public void remove(String key) {
+        HttpSession existing = this.existing();
+        if (existing != null) 
+        { existing.removeAttribute(key); }
+    }
+
+    // true once the client has a session, reading does not create one
+    public boolean exists() 
+    { return this.existing() != null; }
+
+    private HttpSession existing() {
+        if (this.session == null) 
+        { this.session = this.request.getSession(false); }
 
-    public void remove(String key)
-    { this.session.removeAttribute(key); }
-}
\ No newline at end of file
+        return this.session;
+    }
+
+    private HttpSession create() {
+        if (this.session == null) 
+        { this.session = this.request.getSession(); }
+
+        return this.session;
+    }
+}
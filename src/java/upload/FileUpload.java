@@ -1,63 +1,189 @@
 package upload;
 
 import javax.servlet.http.Part;
+
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import logging.Logger;
 
+// an uploaded file, either streamed to a temporary file by MultipartParser or held by the
+// container as a Part; nothing is opened until the handler reads or saves it
 public class FileUpload {
 
+    private static final Logger log = Logger.getLogger(FileUpload.class);
+
+    private static final int MAX_SAVE_THREADS = Math.max(2, Math.min(8, Runtime.getRuntime().availableProcessors()));
+
+    private String fieldName;
     private String fileName;
     private String contentType;
     private long size;
-    private InputStream inputStream;
+    private long checksum = -1;
     private Part part;
 
+    // temporary until saved, deleted with the request unless saved
+    private volatile Path file;
+    private volatile boolean temporary;
+
     public FileUpload(Part part) {
         this.part = part;
-        this.fileName = extractFileName(part);
+        this.fieldName = part.getName();
+        this.fileName = baseName(MultipartParser.dispositionParameter(part.getHeader("content-disposition"), "filename"));
         this.contentType = part.getContentType();
         this.size = part.getSize();
+    }
 
-        try 
-        { this.inputStream = part.getInputStream(); } 
-        
-        catch (Exception e) 
-        { e.printStackTrace(); }
+    FileUpload(String fieldName, String fileName, String contentType, long size, long checksum, Path file) {
+        this.fieldName = fieldName;
+        this.fileName = baseName(fileName);
+        this.contentType = contentType;
+        this.size = size;
+        this.checksum = checksum;
+        this.file = file;
+        this.temporary = true;
     }
 
-    private String extractFileName(Part part) {
-        String contentDisp = part.getHeader("content-disposition");
-        String[] items = contentDisp.split(";");
-        for (String s : items) {
-            if (s.trim().startsWith("filename")) 
-            { return s.substring(s.indexOf("=") + 2, s.length() - 1); }
-        }
-        return "";
+    // browsers may send a full client path, only its last element names the file
+    static String baseName(String fileName) {
+        if (fileName == null)
+        { return ""; }
+
+        int slash = Math.max(fileName.lastIndexOf('/'), fileName.lastIndexOf('\\'));
+        return fileName.substring(slash + 1);
     }
 
     // save file
-    public void saveToDirectory(String directory) 
-        throws Exception 
+    public void saveToDirectory(String directory)
+        throws Exception
     {
-        try 
-        { part.write(directory + "/" + fileName); } 
-        
-        catch (Exception e) 
+        try {
+            if (fileName.isEmpty() || fileName.equals(".") || fileName.equals(".."))
+            { throw new IOException("Invalid file name '" + fileName + "'"); }
+
+            if (part != null) {
+                part.write(directory + "/" + fileName);
+                return;
+            }
+
+            Path target = Paths.get(directory).resolve(fileName);
+
+            // the temporary file is renamed the first time, later saves copy the saved file
+            synchronized (this) {
+                if (temporary) {
+                    Files.move(file, target, StandardCopyOption.REPLACE_EXISTING);
+                    file = target;
+                    temporary = false;
+                }
+
+                else if (!Files.isSameFile(file, target))
+                { Files.copy(file, target, StandardCopyOption.REPLACE_EXISTING); }
+            }
+        }
+
+        catch (Exception e)
         { throw new Exception("Error saving file: " + e.getMessage()); }
     }
 
+    // saves every file to the directory, in parallel when there are several; two files with
+    // the same name would race for the same target, so the whole batch is refused before any save
+    public static void saveAllToDirectory(List<FileUpload> files, String directory)
+        throws Exception
+    {
+        if (files.size() == 1) {
+            files.get(0).saveToDirectory(directory);
+            return;
+        }
+
+        // compared ignoring case, which some file systems do
+        Set<String> names = new HashSet<>();
+        for (FileUpload upload : files) {
+            if (!names.add(upload.fileName.toLowerCase(Locale.ROOT)))
+            { throw new Exception("Error saving file: several files are named '" + upload.fileName + "'"); }
+        }
+
+        // threads of this call only, so nothing outlives the request or pins the webapp on undeploy
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(files.size(), MAX_SAVE_THREADS), runnable -> {
+            Thread thread = new Thread(runnable, "framework-upload-save");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        Exception failure = null;
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (FileUpload upload : files)
+            { futures.add(executor.submit(() -> { upload.saveToDirectory(directory); return null; })); }
+
+            for (Future<?> future : futures) {
+                try
+                { future.get(); }
+
+                catch (ExecutionException e) {
+                    if (failure == null)
+                    { failure = (Exception) e.getCause(); }
+                }
+            }
+        }
+
+        finally
+        { executor.shutdown(); }
+
+        if (failure != null)
+        { throw failure; }
+    }
+
+    void deleteIfTemporary() {
+        if (!temporary)
+        { return; }
+
+        try
+        { Files.deleteIfExists(file); }
+
+        catch (IOException e)
+        { log.warn("Cannot delete temporary upload " + file + ": " + e.getMessage()); }
+    }
+
     // Getters
-    public String getFileName() 
+    public String getFieldName()
+    { return fieldName; }
+
+    public String getFileName()
     { return fileName; }
 
-    public String getContentType() 
+    public String getContentType()
     { return contentType; }
 
-    public long getSize() 
+    public long getSize()
     { return size; }
 
-    public InputStream getInputStream() 
-    { return inputStream; }
+    // CRC32 of the content computed while it was written, -1 for container parts
+    public long getChecksum()
+    { return checksum; }
+
+    // opened on each call, the caller closes it
+    public InputStream getInputStream() {
+        try
+        { return part != null ? part.getInputStream() : Files.newInputStream(file); }
+
+        catch (IOException e)
+        { throw new UncheckedIOException("Cannot open the stream of uploaded file " + fileName, e); }
+    }
 
-    public Part getPart() 
+    public Part getPart()
     { return part; }
-}
\ No newline at end of file
+}
@@ -0,0 +1,53 @@
+package upload;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// fields and files of a multipart body parsed by MultipartParser
+public final class MultipartForm {
+
+    private final Map<String, List<String>> fields = new LinkedHashMap<>();
+    private final List<FileUpload> files = new ArrayList<>();
+
+    void addField(String name, String value) {
+        List<String> values = fields.get(name);
+        if (values == null) {
+            values = new ArrayList<>(1);
+            fields.put(name, values);
+        }
+        values.add(value);
+    }
+
+    void addFile(FileUpload file)
+    { files.add(file); }
+
+    public String getParameter(String name) {
+        List<String> values = fields.get(name);
+        return values != null ? values.get(0) : null;
+    }
+
+    public List<String> getParameterValues(String name) {
+        List<String> values = fields.get(name);
+        return values != null ? Collections.unmodifiableList(values) : Collections.<String>emptyList();
+    }
+
+    public FileUpload getFile(String name) {
+        for (FileUpload file : files) {
+            if (name.equals(file.getFieldName()))
+            { return file; }
+        }
+        return null;
+    }
+
+    public List<FileUpload> getFiles()
+    { return Collections.unmodifiableList(files); }
+
+    // removes the temporary files the handler did not save
+    public void cleanup() {
+        for (FileUpload file : files)
+        { file.deleteIfTemporary(); }
+    }
+}
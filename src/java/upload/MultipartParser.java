@@ -0,0 +1,390 @@
+package upload;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+import javax.servlet.ServletContext;
+import javax.servlet.http.HttpServletRequest;
+
+import exception.UploadLimitException;
+
+// reads a multipart/form-data body straight from the request stream: file parts are written
+// to temporary files through a file channel as they arrive, fields are kept in memory,
+// and the limits are checked on every chunk so an oversized body is never buffered; the
+// number of parts and the bytes of all fields are capped even when maxRequestSize is -1
+public final class MultipartParser {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int MAX_HEADERS_SIZE = 8 * 1024;
+    private static final int MAX_FIELD_SIZE = 1024 * 1024;
+    private static final int MAX_FIELDS_SIZE = 10 * 1024 * 1024;
+    private static final int MAX_PARTS = 1000;
+
+    private static final byte[] HEADERS_END = { '\r', '\n', '\r', '\n' };
+
+    private final InputStream in;
+    private final UploadLimits limits;
+    private final Path tempDirectory;
+    private final Charset charset;
+
+    // "\r\n--boundary", the buffer starts with a virtual "\r\n" so the first boundary matches too
+    private final byte[] delimiter;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private int start;
+    private int end;
+    private boolean eof;
+    private long received;
+    private int parts;
+    private long fieldBytes;
+
+    private MultipartParser(InputStream in, String boundary, UploadLimits limits, Path tempDirectory, Charset charset) {
+        this.in = in;
+        this.limits = limits;
+        this.tempDirectory = tempDirectory;
+        this.charset = charset;
+        this.delimiter = ("\r\n--" + boundary).getBytes(StandardCharsets.ISO_8859_1);
+        this.buffer[0] = '\r';
+        this.buffer[1] = '\n';
+        this.end = 2;
+    }
+
+    public static boolean isMultipart(HttpServletRequest request) {
+        String contentType = request.getContentType();
+        return contentType != null && contentType.regionMatches(true, 0, "multipart/form-data", 0, "multipart/form-data".length());
+    }
+
+    public static MultipartForm parse(HttpServletRequest request, UploadLimits limits)
+        throws IOException, UploadLimitException
+    {
+        String boundary = headerParameter(request.getContentType(), "boundary");
+        if (boundary == null || boundary.isEmpty() || boundary.length() > 70)
+        { throw new IllegalArgumentException("Malformed multipart request: missing or invalid boundary"); }
+
+        // refuse a declared oversized body before reading a byte of it
+        long declared = request.getContentLengthLong();
+        if (limits.getMaxRequestSize() >= 0 && declared > limits.getMaxRequestSize())
+        { throw requestTooLarge(limits); }
+
+        String encoding = request.getCharacterEncoding();
+        Charset charset = encoding != null ? Charset.forName(encoding) : StandardCharsets.UTF_8;
+
+        MultipartForm form = new MultipartForm();
+        try {
+            new MultipartParser(request.getInputStream(), boundary, limits, tempDirectory(request), charset).parse(form);
+            return form;
+        }
+
+        catch (IOException | UploadLimitException | RuntimeException e) {
+            form.cleanup();
+            throw e;
+        }
+    }
+
+    private void parse(MultipartForm form)
+        throws IOException, UploadLimitException
+    {
+        // the preamble before the first boundary is ignored
+        readBody(null);
+
+        while (true) {
+            require(2);
+            if (buffer[start] == '-' && buffer[start + 1] == '-')
+            { return; }
+
+            if (buffer[start] != '\r' || buffer[start + 1] != '\n')
+            { throw malformed("unexpected bytes after a boundary"); }
+
+            start += 2;
+
+            // checked before the part's headers are read or its temporary file is created
+            if (++parts > MAX_PARTS)
+            { throw new UploadLimitException("The request has more than " + MAX_PARTS + " parts"); }
+
+            readPart(form);
+        }
+    }
+
+    private void readPart(MultipartForm form)
+        throws IOException, UploadLimitException
+    {
+        String headers = readHeaders();
+        String disposition = header(headers, "content-disposition");
+        String name = dispositionParameter(disposition, "name");
+        String fileName = dispositionParameter(disposition, "filename");
+
+        if (name == null)
+        { throw malformed("part without a name"); }
+
+        if (fileName == null) {
+            FieldSink field = new FieldSink();
+            readBody(field);
+            form.addField(name, new String(field.bytes.toByteArray(), charset));
+            return;
+        }
+
+        // an empty file input is posted with an empty filename
+        if (fileName.isEmpty()) {
+            readBody(null);
+            return;
+        }
+
+        Path file = Files.createTempFile(tempDirectory, "upload-", ".tmp");
+        FileSink sink = null;
+        try {
+            sink = new FileSink(FileChannel.open(file, StandardOpenOption.WRITE), FileUpload.baseName(fileName));
+            readBody(sink);
+            sink.channel.close();
+
+            String contentType = header(headers, "content-type");
+            form.addFile(new FileUpload(name, fileName, contentType != null ? contentType : "application/octet-stream", sink.size, sink.crc.getValue(), file));
+        }
+
+        catch (IOException | UploadLimitException | RuntimeException e) {
+            if (sink != null)
+            { sink.channel.close(); }
+
+            Files.deleteIfExists(file);
+            throw e;
+        }
+    }
+
+    private String readHeaders()
+        throws IOException, UploadLimitException
+    {
+        // bytes already searched, relative to start since fill moves the data
+        int scanned = 0;
+
+        while (true) {
+            int index = indexOf(HEADERS_END, start + scanned);
+            if (index >= 0) {
+                String headers = new String(buffer, start, index - start, StandardCharsets.UTF_8);
+                start = index + HEADERS_END.length;
+                return headers;
+            }
+
+            if (end - start >= MAX_HEADERS_SIZE)
+            { throw malformed("part headers too large"); }
+
+            scanned = Math.max(0, end - start - HEADERS_END.length + 1);
+            if (!fill())
+            { throw malformed("unexpected end of body in part headers"); }
+        }
+    }
+
+    // streams the part body to the sink up to the next delimiter, a null sink discards it
+    private void readBody(Sink sink)
+        throws IOException, UploadLimitException
+    {
+        while (true) {
+            int index = indexOf(delimiter, start);
+            if (index >= 0) {
+                if (sink != null && index > start)
+                { sink.write(buffer, start, index - start); }
+
+                start = index + delimiter.length;
+                return;
+            }
+
+            // everything but a possible delimiter prefix at the end can be handed over
+            int safe = end - delimiter.length + 1;
+            if (safe > start) {
+                if (sink != null)
+                { sink.write(buffer, start, safe - start); }
+
+                start = safe;
+            }
+
+            if (!fill())
+            { throw malformed("missing closing boundary"); }
+        }
+    }
+
+    private int indexOf(byte[] pattern, int from) {
+        byte first = pattern[0];
+        int last = end - pattern.length;
+
+        for (int i = from; i <= last; i++) {
+            if (buffer[i] != first)
+            { continue; }
+
+            int j = 1;
+            while (j < pattern.length && buffer[i + j] == pattern[j])
+            { j++; }
+
+            if (j == pattern.length)
+            { return i; }
+        }
+        return -1;
+    }
+
+    private void require(int count)
+        throws IOException, UploadLimitException
+    {
+        while (end - start < count) {
+            if (!fill())
+            { throw malformed("unexpected end of body"); }
+        }
+    }
+
+    // compacts the buffer and reads more of the body, false at the end of the stream
+    private boolean fill()
+        throws IOException, UploadLimitException
+    {
+        if (eof)
+        { return false; }
+
+        if (start > 0) {
+            System.arraycopy(buffer, start, buffer, 0, end - start);
+            end -= start;
+            start = 0;
+        }
+
+        int read = in.read(buffer, end, buffer.length - end);
+        if (read < 0) {
+            eof = true;
+            return false;
+        }
+
+        received += read;
+        if (limits.getMaxRequestSize() >= 0 && received > limits.getMaxRequestSize())
+        { throw requestTooLarge(limits); }
+
+        end += read;
+        return true;
+    }
+
+    private static UploadLimitException requestTooLarge(UploadLimits limits)
+    { return new UploadLimitException("The request exceeds the maximum upload size of " + limits.getMaxRequestSize() + " bytes"); }
+
+    private static IllegalArgumentException malformed(String reason)
+    { return new IllegalArgumentException("Malformed multipart request: " + reason); }
+
+    private static Path tempDirectory(HttpServletRequest request) {
+        ServletContext context = request.getServletContext();
+        Object directory = context != null ? context.getAttribute(ServletContext.TEMPDIR) : null;
+
+        return directory instanceof File
+            ? ((File) directory).toPath()
+            : new File(System.getProperty("java.io.tmpdir")).toPath();
+    }
+
+    private static String header(String headers, String name) {
+        for (String line : headers.split("\r\n")) {
+            int colon = line.indexOf(':');
+            if (colon > 0 && line.substring(0, colon).trim().equalsIgnoreCase(name))
+            { return line.substring(colon + 1).trim(); }
+        }
+        return null;
+    }
+
+    // parameter of a header such as 'form-data; name="file"; filename="a.txt"', null if absent
+    static String dispositionParameter(String header, String parameter)
+    { return headerParameter(header, parameter); }
+
+    private static String headerParameter(String header, String parameter) {
+        if (header == null)
+        { return null; }
+
+        int i = header.indexOf(';');
+        while (i >= 0 && i < header.length()) {
+            i++;
+            while (i < header.length() && header.charAt(i) == ' ')
+            { i++; }
+
+            int equals = header.indexOf('=', i);
+            int semicolon = header.indexOf(';', i);
+            if (equals < 0 || (semicolon >= 0 && semicolon < equals)) {
+                i = semicolon;
+                continue;
+            }
+
+            String name = header.substring(i, equals).trim();
+            StringBuilder value = new StringBuilder();
+            i = equals + 1;
+
+            if (i < header.length() && header.charAt(i) == '"') {
+                for (i++; i < header.length() && header.charAt(i) != '"'; i++) {
+                    char c = header.charAt(i);
+
+                    // browsers do not escape the backslashes of windows paths, only \" and \\ are escapes
+                    if (c == '\\' && i + 1 < header.length() && (header.charAt(i + 1) == '"' || header.charAt(i + 1) == '\\'))
+                    { c = header.charAt(++i); }
+
+                    value.append(c);
+                }
+                i = header.indexOf(';', i);
+            }
+
+            else {
+                int stop = header.indexOf(';', i);
+                value.append(header, i, stop < 0 ? header.length() : stop);
+                i = stop;
+            }
+
+            if (name.equalsIgnoreCase(parameter))
+            { return value.toString().trim(); }
+        }
+        return null;
+    }
+
+    private interface Sink {
+        void write(byte[] bytes, int offset, int length) throws IOException, UploadLimitException;
+    }
+
+    private final class FieldSink implements Sink {
+
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        @Override
+        public void write(byte[] data, int offset, int length)
+            throws UploadLimitException
+        {
+            if (bytes.size() + length > MAX_FIELD_SIZE)
+            { throw new UploadLimitException("A form field exceeds " + MAX_FIELD_SIZE + " bytes"); }
+
+            fieldBytes += length;
+            if (fieldBytes > MAX_FIELDS_SIZE)
+            { throw new UploadLimitException("The form fields exceed " + MAX_FIELDS_SIZE + " bytes in total"); }
+
+            bytes.write(data, offset, length);
+        }
+    }
+
+    private final class FileSink implements Sink {
+
+        final FileChannel channel;
+        final String fileName;
+        final CRC32 crc = new CRC32();
+        long size;
+
+        FileSink(FileChannel channel, String fileName) {
+            this.channel = channel;
+            this.fileName = fileName;
+        }
+
+        @Override
+        public void write(byte[] data, int offset, int length)
+            throws IOException, UploadLimitException
+        {
+            size += length;
+            if (limits.getMaxFileSize() >= 0 && size > limits.getMaxFileSize())
+            { throw new UploadLimitException("The file " + fileName + " exceeds the maximum size of " + limits.getMaxFileSize() + " bytes"); }
+
+            crc.update(data, offset, length);
+
+            ByteBuffer chunk = ByteBuffer.wrap(data, offset, length);
+            while (chunk.hasRemaining())
+            { channel.write(chunk); }
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package upload;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Parameter;
+
+import annotation.AnnotationFileUpload;
+
+// size limits of the multipart body of one handler, resolved at scan time
+public final class UploadLimits {
+
+    private final long maxFileSize;
+    private final long maxRequestSize;
+
+    public UploadLimits(long maxFileSize, long maxRequestSize) {
+        this.maxFileSize = maxFileSize;
+        this.maxRequestSize = maxRequestSize;
+    }
+
+    // null when the method takes no upload, its multipart bodies are then left to the container
+    public static UploadLimits forMethod(Method method) {
+        UploadLimits limits = null;
+
+        for (Parameter parameter : method.getParameters()) {
+            AnnotationFileUpload upload = parameter.getAnnotation(AnnotationFileUpload.class);
+            if (upload == null) 
+            { continue; }
+
+            limits = limits == null 
+                ? new UploadLimits(upload.maxFileSize(), upload.maxRequestSize()) 
+                : new UploadLimits(strictest(limits.maxFileSize, upload.maxFileSize()), strictest(limits.maxRequestSize, upload.maxRequestSize()));
+        }
+        return limits;
+    }
+
+    private static long strictest(long a, long b) {
+        if (a < 0) 
+        { return b; }
+
+        return b < 0 ? a : Math.min(a, b);
+    }
+
+    // -1 for no limit
+    public long getMaxFileSize() 
+    { return maxFileSize; }
+
+    public long getMaxRequestSize() 
+    { return maxRequestSize; }
+}
@@ -1,21 +1,32 @@
 package utils;
 
-import java.io.OutputStream;
 import java.io.PrintWriter;
+import java.lang.reflect.Type;
 import java.util.List;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
-import com.google.gson.Gson;
+import compress.CompressingResponse;
+import logging.Logger;
 
 import mapping.Mapping;
 import modelview.ModelView;
+import response.BufferedBodyWriter;
+import response.ByteRange;
+import response.ConditionalRequest;
+import response.ETagSupplier;
 import response.FileExportResult;
+import response.JsonSerializer;
 import verb.VerbAction;
 
 public class Utils {
 
+    private static final Logger log = Logger.getLogger(Utils.class);
+
+    // chars of a REST body kept in memory to compute its ETag
+    private static final int MAX_TAGGED_BODY = 64 * 1024;
+
     public static String parseURL(String projectName, String url) {
         String prefix = "/" + projectName + "/";
         String currentUrl = "";
@@ -23,8 +34,7 @@ public class Utils {
         if (url.startsWith(prefix)) 
         { currentUrl = "/" + url.substring(prefix.length()); }
         
-        System.out.println("given url:" + url);
-        System.out.println("Curent URL from parse URL: " + currentUrl);
+        log.debug("given url: {}, current URL from parse URL: {}", url, currentUrl);
 
         return currentUrl;
     }   
@@ -69,42 +79,121 @@ public class Utils {
         } 
         
         catch (Exception e) {
-            e.printStackTrace();
+            log.error("Failed to render the handler result", e);
         }
     }
 
     public static void handleRestAPI(Object result, HttpServletResponse response) 
         throws Exception 
+    { handleRestAPI(result, null, null, response); }
+
+    // jsonType comes from HandlerMethod.getJsonType, null to serialize by runtime class;
+    // request is null when conditional requests should not be answered
+    public static void handleRestAPI(Object result, Type jsonType, HttpServletRequest request, HttpServletResponse response) 
+        throws Exception 
     {
-        response.setContentType("application/json");
-        PrintWriter out = response.getWriter();
-        Gson gson = new Gson();
+        response.setCharacterEncoding("UTF-8");
+        response.setContentType("application/json;charset=UTF-8");
 
-        if (result instanceof ModelView) {
-            ModelView modelView = (ModelView) result;
-            String json = gson.toJson(modelView.getData());
+        Object body = result instanceof ModelView ? ((ModelView) result).getData() : result;
+        Type type = result instanceof ModelView ? null : jsonType;
 
-            out.print(json);
-        } 
-        
-        else {
-            String json = gson.toJson(result);
-            out.print(json);
+        // only a GET can be answered with 304
+        if (request == null || !"GET".equals(request.getMethod())) {
+            JsonSerializer.write(body, type, response.getWriter());
+            return;
+        }
+
+        // validators supplied by the result spare the serialization of a 304
+        if (result instanceof ETagSupplier) {
+            String etag = ((ETagSupplier) result).getETag();
+            long lastModified = ((ETagSupplier) result).getLastModified();
+
+            if (ConditionalRequest.isNotModified(request, etag, lastModified)) {
+                ConditionalRequest.notModified(response, etag, lastModified);
+                return;
+            }
+
+            ConditionalRequest.writeValidators(response, etag, lastModified);
+            JsonSerializer.write(body, type, response.getWriter());
+            return;
+        }
+
+        // tag the body when it fits the buffer, larger bodies are streamed untagged
+        BufferedBodyWriter buffer = new BufferedBodyWriter(response, MAX_TAGGED_BODY);
+        JsonSerializer.write(body, type, buffer);
+
+        if (!buffer.isBuffered()) 
+        { return; }
+
+        String etag = buffer.etag();
+        if (ConditionalRequest.isNotModified(request, etag, -1)) {
+            ConditionalRequest.notModified(response, etag, -1);
+            return;
         }
+
+        response.setHeader("ETag", etag);
+        buffer.writeTo(response.getWriter());
     }
 
     public static void handleFileExport(FileExportResult exportResult, HttpServletResponse response)
         throws java.io.IOException 
+    { handleFileExport(exportResult, null, response); }
+
+    // request is null when ranges and conditional requests should not be honoured
+    public static void handleFileExport(FileExportResult exportResult, HttpServletRequest request, HttpServletResponse response)
+        throws java.io.IOException 
     {
-        response.setContentType(exportResult.getContentType());
-        response.setContentLength(exportResult.getFileContent().length);
-        
-        // set headers 
-        response.setHeader("Content-Disposition", "attachment; filename=\"" + exportResult.getFilename() + "\"");
+        try {
+            long contentLength = exportResult.getContentLength();
+            boolean conditional = request != null && "GET".equals(request.getMethod());
 
-        try (OutputStream outStream = response.getOutputStream()) {
-            outStream.write(exportResult.getFileContent());
-            outStream.flush();
-        }
+            // file-backed exports are tagged from their metadata, never by reading them
+            String etag = exportResult.getETag();
+            long lastModified = exportResult.getLastModified();
+
+            if (conditional && ConditionalRequest.isNotModified(request, etag, lastModified)) {
+                ConditionalRequest.notModified(response, etag, lastModified);
+                return;
+            }
+
+            response.setContentType(exportResult.getContentType());
+            ConditionalRequest.writeValidators(response, etag, lastModified);
+
+            // set headers 
+            response.setHeader("Content-Disposition", "attachment; filename=\"" + exportResult.getFilename() + "\"");
+            response.setHeader("Accept-Ranges", contentLength >= 0 ? "bytes" : "none");
+
+            // a stale If-Range asks for the full content
+            ByteRange range = conditional && contentLength >= 0 && ConditionalRequest.ifRangeMatches(request, etag, lastModified) 
+                ? ByteRange.parse(request.getHeader("Range"), contentLength) 
+                : null;
+
+            if (range == ByteRange.UNSATISFIABLE) {
+                response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                response.setHeader("Content-Range", "bytes */" + contentLength);
+                return;
+            }
+
+            long start = range != null ? range.getStart() : 0;
+            long length = range != null ? range.getLength() : contentLength;
+
+            if (range != null) {
+                response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                response.setHeader("Content-Range", range.toContentRange(contentLength));
+            }
+
+            if (length >= 0) 
+            { response.setContentLengthLong(length); }
+
+            // the container sends large files itself when it offers sendfile and the body is not to
+            // be compressed, nothing is written then
+            boolean compressed = response instanceof CompressingResponse && ((CompressingResponse) response).isCompressible();
+            if (request == null || compressed || !exportResult.sendfile(request, start, length)) 
+            { exportResult.writeTo(response.getOutputStream(), start, length); }
+        } 
+        
+        finally 
+        { exportResult.close(); }
     }
 }
\ No newline at end of file
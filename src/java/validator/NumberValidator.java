@@ -0,0 +1,35 @@
+package validator;
+
+import java.math.BigDecimal;
+
+import engine.ConstraintValidator;
+import engine.ValidationContext;
+
+import validation.Number;
+
+public class NumberValidator implements ConstraintValidator<Number, Object> {
+    
+    private boolean canBeNegative;
+    
+    @Override
+    public void initialize(Number annotation) {
+        this.canBeNegative = annotation.canBeNegative();
+    }
+    
+    @Override
+    public boolean isValid(Object value, ValidationContext context) {
+        if (value == null) return true;     // null handling should be done by @NotNull
+
+        if (value instanceof java.lang.Number) 
+        { return canBeNegative || ((java.lang.Number) value).doubleValue() >= 0; }
+
+        // text fields must hold a number
+        try {
+            BigDecimal number = new BigDecimal(value.toString().trim());
+            return canBeNegative || number.signum() >= 0;
+        } 
+        
+        catch (NumberFormatException e) 
+        { return false; }
+    }
+}